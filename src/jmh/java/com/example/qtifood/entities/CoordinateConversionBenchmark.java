@@ -0,0 +1,74 @@
+package com.example.qtifood.entities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Chuyển đổi toạ độ ở ranh giới JDBC/DTO cho 1 000 điểm:
+ * MicrodegreeConverter (numeric(9,6) ↔ int) và GeoPoint (double ↔ int),
+ * so với cách BigDecimal cũ (BigDecimal.valueOf(double).setScale(6) khi ghi, doubleValue() khi đọc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoordinateConversionBenchmark {
+
+    private static final int N = 1_000;
+
+    private final MicrodegreeConverter converter = new MicrodegreeConverter();
+    private final double[] degrees = new double[N];
+    private final BigDecimal[] columns = new BigDecimal[N];
+    private final Integer[] microdegrees = new Integer[N];
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        for (int i = 0; i < N; i++) {
+            degrees[i] = 106.700806 + (rnd.nextDouble() - 0.5) * 0.5;
+            microdegrees[i] = GeoPoint.toMicrodegrees(degrees[i]);
+            columns[i] = BigDecimal.valueOf(microdegrees[i], 6);
+        }
+    }
+
+    // ResultSet → entity
+    @Benchmark
+    public void converterRead(Blackhole bh) {
+        for (int i = 0; i < N; i++) bh.consume(converter.convertToEntityAttribute(columns[i]));
+    }
+
+    // entity → PreparedStatement
+    @Benchmark
+    public void converterWrite(Blackhole bh) {
+        for (int i = 0; i < N; i++) bh.consume(converter.convertToDatabaseColumn(microdegrees[i]));
+    }
+
+    // DTO (double) → entity → DTO
+    @Benchmark
+    public void geoPointDegrees(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            GeoPoint p = GeoPoint.ofDegrees(degrees[i] - 96, degrees[i]);
+            bh.consume(p.latitude() + p.longitude());
+        }
+    }
+
+    // cách cũ: entity giữ BigDecimal
+    @Benchmark
+    public void bigDecimalDegrees(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            BigDecimal lat = BigDecimal.valueOf(degrees[i] - 96).setScale(6, RoundingMode.HALF_UP);
+            BigDecimal lng = BigDecimal.valueOf(degrees[i]).setScale(6, RoundingMode.HALF_UP);
+            bh.consume(lat.doubleValue() + lng.doubleValue());
+        }
+    }
+}
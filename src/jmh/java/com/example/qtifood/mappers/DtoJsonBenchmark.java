@@ -0,0 +1,64 @@
+package com.example.qtifood.mappers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.qtifood.dtos.Stores.StoreResponseDto;
+import com.example.qtifood.dtos.user.UserResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson serialize danh sách DTO bằng ObjectMapper cấu hình như Spring MVC (Jackson2ObjectMapperBuilder).
+ * Ghi vào stream rỗng như khi ghi thẳng ra response; {@code *Bytes} là đường dựng body sẵn (xem CategorySnapshot).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoJsonBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    // Jackson đóng stream sau mỗi writeValue (AUTO_CLOSE_TARGET) — sink bỏ qua close để dùng lại được
+    private final OutputStream sink = new OutputStream() {
+        @Override public void write(int b) {}
+        @Override public void write(byte[] b, int off, int len) {}
+    };
+
+    private List<StoreResponseDto> stores;
+    private List<UserResponseDto> users;
+
+    @Setup
+    public void setUp() {
+        stores = EntityFixtures.stores(size).stream().map(StoreMapper::toDto).toList();
+        users = EntityFixtures.users(size).stream().map(UserMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public void stores() throws IOException {
+        objectMapper.writeValue(sink, stores);
+    }
+
+    @Benchmark
+    public void users() throws IOException {
+        objectMapper.writeValue(sink, users);
+    }
+
+    @Benchmark
+    public byte[] storesBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(stores);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.qtifood.mappers;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.qtifood.dtos.Addresses.AddressResponseDto;
+import com.example.qtifood.dtos.Stores.StoreResponseDto;
+import com.example.qtifood.dtos.user.UserResponseDto;
+import com.example.qtifood.entities.Address;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.entities.User;
+
+/**
+ * Entity → DTO cho một trang/danh sách, đúng cách các service gọi mapper ({@code stream().map(...).toList()}).
+ * {@code usersWithPreloadedRoles} là đường của getUsers (roles nạp theo trang), {@code users} đi qua u.getRoles().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private List<Store> stores;
+    private List<Address> addresses;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        stores = EntityFixtures.stores(size);
+        addresses = EntityFixtures.addresses(size);
+        users = EntityFixtures.users(size);
+    }
+
+    @Benchmark
+    public List<StoreResponseDto> stores() {
+        return stores.stream().map(StoreMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<AddressResponseDto> addresses() {
+        return addresses.stream().map(AddressMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<UserResponseDto> users() {
+        return users.stream().map(UserMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<UserResponseDto> usersWithPreloadedRoles() {
+        EnumSet<RoleType> roles = EnumSet.of(RoleType.CUSTOMER);
+        return users.stream().map(u -> UserMapper.toDto(u, roles)).toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.qtifood.mappers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.example.qtifood.entities.Address;
+import com.example.qtifood.entities.GeoPoint;
+import com.example.qtifood.entities.Role;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.entities.StoreStatus;
+import com.example.qtifood.entities.User;
+
+// Entity giả lập đã nạp đầy đủ (không proxy), seed cố định để các lần chạy so sánh được với nhau
+final class EntityFixtures {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private static final Role CUSTOMER = Role.builder().id(1L).name(RoleType.CUSTOMER).build();
+    private static final Role SELLER = Role.builder().id(2L).name(RoleType.SELLER).build();
+
+    private EntityFixtures() {}
+
+    static List<User> users(int n) {
+        Random rnd = new Random(42);
+        List<User> users = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            users.add(User.builder()
+                    .id((long) i + 1)
+                    .fullName("Nguyễn Văn " + i)
+                    .email("user" + i + "@qtifood.vn")
+                    .phone("09" + (10_000_000 + rnd.nextInt(89_999_999)))
+                    .password("$2a$10$abcdefghijklmnopqrstuuN7V4TtnDWQuLqJ9bR2wHv0Qy1hEo9q")
+                    .avatarUrl("https://cdn.qtifood.vn/avatars/" + i + ".jpg")
+                    .dateOfBirth(LocalDate.of(1980 + rnd.nextInt(25), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28)))
+                    .gender(rnd.nextBoolean() ? "MALE" : "FEMALE")
+                    .isActive(true)
+                    .createdAt(CREATED.plusMinutes(i))
+                    .updatedAt(CREATED.plusMinutes(i).plusSeconds(rnd.nextInt(86_400)))
+                    .roles(i % 10 == 0 ? Set.of(CUSTOMER, SELLER) : Set.of(CUSTOMER))
+                    .build());
+        }
+        return users;
+    }
+
+    static List<Store> stores(int n) {
+        Random rnd = new Random(43);
+        User owner = users(1).get(0);
+        List<Store> stores = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            stores.add(Store.builder()
+                    .id((long) i + 1)
+                    .owner(owner)
+                    .name("Quán ăn " + i)
+                    .description("Cơm tấm, bún bò, phở — món " + i)
+                    .address(i + " Nguyễn Huệ, Quận 1, TP.HCM")
+                    .location(point(rnd))
+                    .phone("028" + (1_000_000 + rnd.nextInt(8_999_999)))
+                    .email("store" + i + "@qtifood.vn")
+                    .imageUrl("https://cdn.qtifood.vn/stores/" + i + ".jpg")
+                    .status(StoreStatus.values()[rnd.nextInt(StoreStatus.values().length)])
+                    .openTime(LocalTime.of(6 + rnd.nextInt(4), 0))
+                    .closeTime(LocalTime.of(20 + rnd.nextInt(3), 30))
+                    .createdAt(CREATED.plusMinutes(i))
+                    .updatedAt(CREATED.plusMinutes(i).plusSeconds(rnd.nextInt(86_400)))
+                    .build());
+        }
+        return stores;
+    }
+
+    static List<Address> addresses(int n) {
+        Random rnd = new Random(44);
+        User user = users(1).get(0);
+        List<Address> addresses = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            addresses.add(Address.builder()
+                    .id((long) i + 1)
+                    .user(user)
+                    .receiver("Người nhận " + i)
+                    .phone("09" + (10_000_000 + rnd.nextInt(89_999_999)))
+                    .address(i + " Lê Lợi, Quận 1, TP.HCM")
+                    .location(point(rnd))
+                    .isDefault(i == 0)
+                    .createdAt(CREATED.plusMinutes(i))
+                    .updatedAt(CREATED.plusMinutes(i))
+                    .build());
+        }
+        return addresses;
+    }
+
+    // khu vực ~50 km quanh TP.HCM
+    private static GeoPoint point(Random rnd) {
+        return GeoPoint.ofDegrees(10.776889 + (rnd.nextDouble() - 0.5) * 0.5,
+                                  106.700806 + (rnd.nextDouble() - 0.5) * 0.5);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.qtifood.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Chi phí BCrypt theo cost (app.security.bcrypt-strength): mỗi +1 gấp đôi thời gian.
+ * Kết quả là thời gian một lần băm trên một core — chia số core của PasswordHasher cho con số này
+ * để ra số lần đăng ký/đăng nhập tối đa mỗi giây.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHashBenchmark {
+
+    @Param({"8", "10", "12"})
+    int strength;
+
+    private final String password = "Qtifood@2025";
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode(password);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(password);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches(password, hash);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.qtifood.utils;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.qtifood.entities.GeoPoint;
+
+/**
+ * So sánh tính khoảng cách cho một lô cửa hàng:
+ * toạ độ BigDecimal (cách entity lưu trước đây, mỗi dòng gọi doubleValue() rồi haversine)
+ * với mảng microdegree nguyên thuỷ (GeoUtils, không cấp phát).
+ * Chạy kèm -prof gc để xem lượng cấp phát mỗi thao tác.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeoDistanceBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    private final double originLat = 10.776889;
+    private final double originLng = 106.700806;
+
+    private BigDecimal[] lats;
+    private BigDecimal[] lngs;
+    private double[] latsDeg;
+    private double[] lngsDeg;
+    private int[] latsE6;
+    private int[] lngsE6;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        lats = new BigDecimal[size];
+        lngs = new BigDecimal[size];
+        latsDeg = new double[size];
+        lngsDeg = new double[size];
+        latsE6 = new int[size];
+        lngsE6 = new int[size];
+        out = new double[size];
+        for (int i = 0; i < size; i++) {
+            // khu vực ~50 km quanh TP.HCM, 6 chữ số thập phân như cột numeric(9,6)
+            double lat = originLat + (rnd.nextDouble() - 0.5) * 0.5;
+            double lng = originLng + (rnd.nextDouble() - 0.5) * 0.5;
+            lats[i] = BigDecimal.valueOf(lat).setScale(6, java.math.RoundingMode.HALF_UP);
+            lngs[i] = BigDecimal.valueOf(lng).setScale(6, java.math.RoundingMode.HALF_UP);
+            latsDeg[i] = lats[i].doubleValue();
+            lngsDeg[i] = lngs[i].doubleValue();
+            latsE6[i] = GeoPoint.toMicrodegrees(latsDeg[i]);
+            lngsE6[i] = GeoPoint.toMicrodegrees(lngsDeg[i]);
+        }
+    }
+
+    // đường cũ: đọc từ BigDecimal của entity rồi tính từng điểm
+    @Benchmark
+    public void bigDecimalHaversine(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(GeoUtils.haversineKm(originLat, originLng, lats[i].doubleValue(), lngs[i].doubleValue()));
+        }
+    }
+
+    // đường cũ khi ghi: DTO double → BigDecimal.valueOf, rồi đọc lại doubleValue() cho DTO trả về
+    @Benchmark
+    public void bigDecimalRoundTrip(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            BigDecimal lat = BigDecimal.valueOf(latsDeg[i]);
+            BigDecimal lng = BigDecimal.valueOf(lngsDeg[i]);
+            bh.consume(lat.doubleValue() + lng.doubleValue());
+        }
+    }
+
+    @Benchmark
+    public void microdegreeRoundTrip(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            int lat = GeoPoint.toMicrodegrees(latsDeg[i]);
+            int lng = GeoPoint.toMicrodegrees(lngsDeg[i]);
+            bh.consume(GeoPoint.toDegrees(lat) + GeoPoint.toDegrees(lng));
+        }
+    }
+
+    @Benchmark
+    public double[] primitiveHaversineBatch() {
+        GeoUtils.haversineKm(originLat, originLng, latsE6, lngsE6, size, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] primitiveEquirectangularBatch() {
+        GeoUtils.equirectangularKm(originLat, originLng, latsE6, lngsE6, size, out);
+        return out;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.qtifood.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Kết quả đã chấp nhận của một lần chạy, lưu ở benchmarks/loadtest-baseline.json.
+ * Chỉ so sánh khi cấu hình tải giống nhau; số liệu phụ thuộc máy chạy nên baseline
+ * phải được ghi lại trên đúng máy (runner CI) dùng để so sánh.
+ */
+record Baseline(double rate, String mix, int users, int stores, int bcryptStrength, String recordedAt,
+                List<EndpointStats.Summary> endpoints) {
+
+    static final int MIN_TAIL_SAMPLES = 5;
+
+    static Baseline of(LoadTestConfig config, List<EndpointStats.Summary> endpoints, String recordedAt) {
+        return new Baseline(config.rate(), config.mixSpec(), config.users(), config.stores(),
+                config.bcryptStrength(), recordedAt, endpoints);
+    }
+
+    boolean comparableWith(Baseline other) {
+        return rate == other.rate && mix.equals(other.mix) && users == other.users
+                && stores == other.stores && bcryptStrength == other.bcryptStrength;
+    }
+
+    /**
+     * Các vi phạm của {@code current} so với baseline này: độ trễ vượt {@code tolerance} (tương đối)
+     * cộng {@code slackMillis} (tuyệt đối, để các endpoint dưới 1 ms không báo lỗi vì nhiễu),
+     * hoặc throughput thấp hơn {@code tolerance}. Một percentile chỉ được so khi có ít nhất
+     * {@link #MIN_TAIL_SAMPLES} mẫu nằm trên nó (p99 cần 500 request, p999 cần 5 000), vì với ít mẫu hơn
+     * nó gần như là giá trị max và dao động rất mạnh giữa các lần chạy.
+     */
+    List<String> regressions(Baseline current, double tolerance, double slackMillis) {
+        List<String> violations = new ArrayList<>();
+        for (EndpointStats.Summary base : endpoints) {
+            EndpointStats.Summary now = current.endpoints.stream()
+                    .filter(s -> s.endpoint().equals(base.endpoint())).findFirst().orElse(null);
+            if (now == null) {
+                violations.add(base.endpoint() + ": missing from current run");
+                continue;
+            }
+            long samples = Math.min(base.count(), now.count());
+            latency(violations, base.endpoint(), "p50", 0.5, samples, base.p50(), now.p50(), tolerance, slackMillis);
+            latency(violations, base.endpoint(), "p99", 0.99, samples, base.p99(), now.p99(), tolerance, slackMillis);
+            latency(violations, base.endpoint(), "p999", 0.999, samples, base.p999(), now.p999(), tolerance, slackMillis);
+            double minThroughput = base.throughput() * (1 - tolerance);
+            if (now.throughput() < minThroughput) {
+                violations.add(String.format(Locale.ROOT, "%s: throughput %.1f/s < %.1f/s (baseline %.1f/s)",
+                        base.endpoint(), now.throughput(), minThroughput, base.throughput()));
+            }
+        }
+        return violations;
+    }
+
+    private static void latency(List<String> violations, String endpoint, String name, double quantile, long samples,
+                                double base, double now, double tolerance, double slackMillis) {
+        if (samples * (1 - quantile) < MIN_TAIL_SAMPLES) return;
+        double limit = base * (1 + tolerance) + slackMillis;
+        if (now > limit) {
+            violations.add(String.format(Locale.ROOT, "%s: %s %.2f ms > %.2f ms (baseline %.2f ms)",
+                    endpoint, name, now, limit, base));
+        }
+    }
+}
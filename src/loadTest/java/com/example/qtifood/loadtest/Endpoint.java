@@ -0,0 +1,84 @@
+package com.example.qtifood.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import com.example.qtifood.dtos.common.CursorRequest;
+
+/**
+ * Các thao tác trong workload. Request được dựng trên luồng lập lịch với random có seed,
+ * nên hai lần chạy cùng cấu hình gửi cùng một chuỗi request.
+ */
+enum Endpoint {
+
+    SEARCH("search") {
+        @Override
+        HttpRequest.Builder request(URI base, SeedData data, SplittableRandom rnd, long seq) {
+            String q = data.searchTerms()[rnd.nextInt(data.searchTerms().length)];
+            return HttpRequest.newBuilder(base.resolve("/api/stores/search?limit=20&q="
+                    + URLEncoder.encode(q, StandardCharsets.UTF_8))).GET();
+        }
+    },
+
+    // trang 20 cửa hàng bắt đầu từ một vị trí ngẫu nhiên
+    LIST("list") {
+        @Override
+        HttpRequest.Builder request(URI base, SeedData data, SplittableRandom rnd, long seq) {
+            long afterId = pick(data.storeIds(), rnd) - 1;
+            return HttpRequest.newBuilder(base.resolve("/api/stores?size=20&cursor=" + CursorRequest.encode(afterId))).GET();
+        }
+    },
+
+    GET_BY_ID("getById") {
+        @Override
+        HttpRequest.Builder request(URI base, SeedData data, SplittableRandom rnd, long seq) {
+            return HttpRequest.newBuilder(base.resolve("/api/stores/" + pick(data.storeIds(), rnd))).GET();
+        }
+    },
+
+    SIGNUP("signup") {
+        @Override
+        HttpRequest.Builder request(URI base, SeedData data, SplittableRandom rnd, long seq) {
+            String body = """
+                    {"fullName":"Khách %1$d","email":"lt-%2$s-%1$d@qtifood.vn","phone":"09%3$08d","password":"Qtifood@2025"}
+                    """.formatted(seq, data.runId(), rnd.nextInt(100_000_000));
+            return HttpRequest.newBuilder(base.resolve("/api/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+
+    SET_DEFAULT("setDefault") {
+        @Override
+        HttpRequest.Builder request(URI base, SeedData data, SplittableRandom rnd, long seq) {
+            return HttpRequest.newBuilder(base.resolve("/api/addresses/" + pick(data.addressIds(), rnd) + "/set-default"))
+                    .PUT(HttpRequest.BodyPublishers.noBody());
+        }
+    };
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    abstract HttpRequest.Builder request(URI base, SeedData data, SplittableRandom rnd, long seq);
+
+    static Endpoint byLabel(String label) {
+        for (Endpoint e : values()) {
+            if (e.label.equals(label)) return e;
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + label);
+    }
+
+    private static long pick(long[] ids, SplittableRandom rnd) {
+        return ids[rnd.nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.qtifood.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Độ trễ của một endpoint trong cửa sổ đo. Độ trễ tính từ thời điểm request LẼ RA được gửi
+ * theo lịch (không phải lúc thực sự gửi), nên khi hệ thống chậm thời gian chờ cũng được tính
+ * (tránh coordinated omission). Request lỗi vẫn được ghi vào histogram.
+ */
+final class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long latencyNanos, boolean ok) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_TRACKABLE_MICROS));
+        if (!ok) errors.increment();
+    }
+
+    Summary summarize(double windowSeconds) {
+        Histogram h = recorder.getIntervalHistogram();
+        long count = h.getTotalCount();
+        long failed = errors.sum();
+        return new Summary(endpoint.label(), count, failed,
+                (count - failed) / windowSeconds,
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // throughput tính trên request thành công; các giá trị độ trễ tính bằng ms
+    record Summary(String endpoint, long count, long errors, double throughput,
+                   double p50, double p99, double p999, double max) {
+
+        double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
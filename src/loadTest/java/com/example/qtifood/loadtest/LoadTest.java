@@ -0,0 +1,174 @@
+package com.example.qtifood.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Load test end-to-end: PostgreSQL nhúng → ứng dụng (bootJar, JVM riêng để client không tranh
+ * heap/GC với server; tự chạy các script trong db/ khi khởi động) → seed → warmup + đo → báo cáo và so với baseline.
+ * Exit code 1 khi có regression hoặc tỉ lệ lỗi vượt ngưỡng.
+ */
+public final class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Files.createDirectories(config.outputDir());
+        int exitCode;
+        EmbeddedPostgres postgres = null;
+        Process app = null;
+        try {
+            String jdbcUrl = config.jdbcUrl();
+            if (jdbcUrl.isBlank()) {
+                postgres = EmbeddedPostgres.builder().start();
+                jdbcUrl = postgres.getJdbcUrl(config.jdbcUser(), "postgres");
+            }
+            int port = freePort();
+            app = startApp(config, jdbcUrl, port);
+            URI base = URI.create("http://localhost:" + port);
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            awaitHealthy(client, base, app);
+
+            ObjectMapper json = new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT);
+            long seedStart = System.nanoTime();
+            SeedData data = new Seeder(client, base, json, config).seed();
+            log("Seeded %d users, %d stores, %d addresses in %d s", data.userIds().length, data.storeIds().length,
+                    data.addressIds().length, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStart));
+
+            log("Running %.0f req/s [%s]: warmup %s, measure %s", config.rate(), config.mixSpec(),
+                    config.warmup(), config.duration());
+            List<EndpointStats.Summary> summaries = new OpenModelRunner(client, base, data, config).run();
+            Baseline current = Baseline.of(config, summaries, Instant.now().toString());
+            printTable(summaries);
+            json.writeValue(config.outputDir().resolve("report-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json").toFile(), current);
+
+            exitCode = evaluate(config, current, json);
+        } finally {
+            if (app != null) {
+                app.destroy();
+                if (!app.waitFor(30, TimeUnit.SECONDS)) app.destroyForcibly();
+            }
+            if (postgres != null) postgres.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static int evaluate(LoadTestConfig config, Baseline current, ObjectMapper json) throws IOException {
+        List<String> failures = new ArrayList<>();
+        for (EndpointStats.Summary s : current.endpoints()) {
+            if (s.errorRate() > config.maxErrorRate()) {
+                failures.add(String.format(Locale.ROOT, "%s: error rate %.2f%% > %.2f%%",
+                        s.endpoint(), s.errorRate() * 100, config.maxErrorRate() * 100));
+            }
+        }
+
+        Path baselineFile = config.baseline();
+        if (config.updateBaseline()) {
+            if (!failures.isEmpty()) {
+                failures.forEach(f -> log("FAIL %s", f));
+                log("Baseline not updated: run has errors");
+                return 1;
+            }
+            json.writeValue(baselineFile.toFile(), current);
+            log("Baseline written to %s", baselineFile);
+            return 0;
+        }
+        if (!Files.exists(baselineFile)) {
+            log("No baseline at %s (record one with -Ploadtest.update-baseline=true)", baselineFile);
+        } else {
+            Baseline baseline = json.readValue(baselineFile.toFile(), Baseline.class);
+            if (baseline.comparableWith(current)) {
+                failures.addAll(baseline.regressions(current, config.tolerance(), config.slackMillis()));
+            } else {
+                log("Baseline was recorded with a different configuration (rate=%s, mix=%s, users=%d, stores=%d, "
+                                + "bcrypt=%d); skipping comparison", baseline.rate(), baseline.mix(), baseline.users(),
+                        baseline.stores(), baseline.bcryptStrength());
+            }
+        }
+        failures.forEach(f -> log("FAIL %s", f));
+        log(failures.isEmpty() ? "PASSED" : "FAILED: %d regression(s)", failures.size());
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    private static Process startApp(LoadTestConfig config, String jdbcUrl, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String arg : config.appJvmArgs().trim().split("\\s+")) {
+            if (!arg.isEmpty()) command.add(arg);
+        }
+        command.addAll(List.of("-jar", config.appJar().toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + config.jdbcUser(),
+                "--spring.datasource.password=" + config.jdbcPassword(),
+                "--app.security.bcrypt-strength=" + config.bcryptStrength()));
+        Path appLog = config.outputDir().resolve("app.log");
+        log("Starting application on port %d (log: %s)", port, appLog);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(appLog.toFile())
+                .start();
+    }
+
+    private static void awaitHealthy(HttpClient client, URI base, Process app) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(base.resolve("/actuator/health")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!app.isAlive()) throw new IllegalStateException("Application exited with code " + app.exitValue());
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // chưa mở cổng
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application not healthy after " + STARTUP_TIMEOUT);
+    }
+
+    private static void printTable(List<EndpointStats.Summary> summaries) {
+        System.out.printf(Locale.ROOT, "%n%-12s %8s %7s %10s %10s %10s %10s %10s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointStats.Summary s : summaries) {
+            System.out.printf(Locale.ROOT, "%-12s %8d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    s.endpoint(), s.count(), s.errors(), s.throughput(), s.p50(), s.p99(), s.p999(), s.max());
+        }
+        System.out.println();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf(Locale.ROOT, "[loadtest] " + format + "%n", args);
+    }
+}
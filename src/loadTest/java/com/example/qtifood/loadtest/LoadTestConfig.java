@@ -0,0 +1,89 @@
+package com.example.qtifood.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tham số load test, đọc từ system property {@code loadtest.*} (gradle: {@code -Ploadtest.<tên>=...}).
+ * Baseline chỉ so sánh được khi {@code rate}, {@code mix} và dữ liệu seed giống lúc ghi baseline.
+ */
+record LoadTestConfig(
+        Path appJar,
+        Path baseline,
+        Path outputDir,
+        // để trống → PostgreSQL nhúng; nếu trỏ ra DB ngoài thì DB phải rỗng
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        String appJvmArgs,
+        int bcryptStrength,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration requestTimeout,
+        Map<Endpoint, Integer> mix,
+        int users,
+        int stores,
+        int addressUsers,
+        int addressesPerUser,
+        long seed,
+        double tolerance,
+        double slackMillis,
+        double maxErrorRate,
+        boolean updateBaseline
+) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Path.of(required("loadtest.app-jar")),
+                Path.of(required("loadtest.baseline")),
+                Path.of(System.getProperty("loadtest.output-dir", "build/loadtest")),
+                System.getProperty("loadtest.jdbc-url", ""),
+                System.getProperty("loadtest.jdbc-user", "postgres"),
+                System.getProperty("loadtest.jdbc-password", "postgres"),
+                System.getProperty("loadtest.app-jvm-args", "-Xmx1g"),
+                Integer.getInteger("loadtest.bcrypt-strength", 10),
+                Double.parseDouble(System.getProperty("loadtest.rate", "50")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT20S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Duration.parse(System.getProperty("loadtest.request-timeout", "PT10S")),
+                parseMix(System.getProperty("loadtest.mix", "search=30,list=20,getById=30,signup=5,setDefault=15")),
+                Integer.getInteger("loadtest.users", 1000),
+                Integer.getInteger("loadtest.stores", 2000),
+                Integer.getInteger("loadtest.address-users", 300),
+                Integer.getInteger("loadtest.addresses-per-user", 3),
+                Long.getLong("loadtest.seed", 42L),
+                Double.parseDouble(System.getProperty("loadtest.tolerance", "0.25")),
+                Double.parseDouble(System.getProperty("loadtest.slack-ms", "2")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                Boolean.getBoolean("loadtest.update-baseline"));
+    }
+
+    // "search=30,list=20,..." → trọng số theo endpoint, giữ thứ tự khai báo
+    static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Invalid loadtest.mix entry: " + part);
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight < 0) throw new IllegalArgumentException("Negative weight in loadtest.mix: " + part);
+            if (weight > 0) mix.put(Endpoint.byLabel(kv[0].trim()), weight);
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("loadtest.mix has no endpoint");
+        return mix;
+    }
+
+    String mixSpec() {
+        StringBuilder sb = new StringBuilder();
+        mix.forEach((e, w) -> sb.append(sb.isEmpty() ? "" : ",").append(e.label()).append('=').append(w));
+        return sb.toString();
+    }
+
+    private static String required(String key) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) throw new IllegalStateException("Missing system property " + key);
+        return value;
+    }
+}
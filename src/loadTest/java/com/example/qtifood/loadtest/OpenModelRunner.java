@@ -0,0 +1,90 @@
+package com.example.qtifood.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tải open-model: request đến theo tiến trình Poisson với tốc độ cố định, không phụ thuộc
+ * việc request trước đã xong hay chưa (khác closed-model "N user lặp lại"), nên khi server chậm
+ * hàng đợi và độ trễ tăng lên như ngoài thực tế. Mỗi request chạy trên một virtual thread.
+ */
+final class OpenModelRunner {
+
+    private final HttpClient client;
+    private final URI base;
+    private final SeedData data;
+    private final LoadTestConfig config;
+
+    OpenModelRunner(HttpClient client, URI base, SeedData data, LoadTestConfig config) {
+        this.client = client;
+        this.base = base;
+        this.data = data;
+        this.config = config;
+    }
+
+    List<EndpointStats.Summary> run() throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint e : config.mix().keySet()) stats.put(e, new EndpointStats(e));
+        Endpoint[] wheel = wheel(config.mix());
+
+        SplittableRandom rnd = new SplittableRandom(config.seed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        Duration timeout = config.requestTimeout();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            double next = start;
+            for (long seq = 0; ; seq++) {
+                next += -Math.log(1 - rnd.nextDouble()) * meanGapNanos;
+                long intended = (long) next;
+                if (intended >= end) break;
+
+                Endpoint endpoint = wheel[rnd.nextInt(wheel.length)];
+                HttpRequest request = endpoint.request(base, data, rnd, seq)
+                        .header("Accept", "application/json").timeout(timeout).build();
+                EndpointStats target = intended >= measureFrom ? stats.get(endpoint) : null;
+
+                long wait = intended - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                executor.execute(() -> {
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status / 100 == 2;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (target != null) target.record(System.nanoTime() - intended, ok);
+                });
+            }
+        }
+
+        double windowSeconds = config.duration().toNanos() / 1e9;
+        List<EndpointStats.Summary> summaries = new ArrayList<>();
+        for (EndpointStats s : stats.values()) summaries.add(s.summarize(windowSeconds));
+        return summaries;
+    }
+
+    // bánh xe trọng số: mỗi endpoint xuất hiện đúng số lần bằng trọng số của nó
+    private static Endpoint[] wheel(Map<Endpoint, Integer> mix) {
+        List<Endpoint> slots = new ArrayList<>();
+        mix.forEach((e, weight) -> {
+            for (int i = 0; i < weight; i++) slots.add(e);
+        });
+        return slots.toArray(Endpoint[]::new);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.qtifood.loadtest;
+
+// id của dữ liệu đã seed; runId làm email đăng ký mới không trùng giữa các lần chạy trên cùng DB
+record SeedData(long[] userIds, long[] storeIds, long[] addressIds, String[] searchTerms, String runId) {}
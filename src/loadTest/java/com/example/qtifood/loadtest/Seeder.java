@@ -0,0 +1,183 @@
+package com.example.qtifood.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Seed dữ liệu qua REST API (không ghi thẳng vào DB) để đi qua đúng validate, index trong bộ nhớ
+ * và cache của ứng dụng: roles → users qua /api/users/bulk → stores → addresses.
+ * Mọi giá trị sinh từ seed cố định nên dữ liệu giống nhau giữa các lần chạy.
+ */
+final class Seeder {
+
+    // số request seed song song
+    private static final int PARALLELISM = 16;
+
+    static final String[] DISHES = {
+            "Cơm tấm", "Bún bò", "Phở", "Bánh mì", "Hủ tiếu", "Bún chả", "Lẩu", "Trà sữa",
+            "Cà phê", "Gà rán", "Bánh xèo", "Mì Quảng", "Pizza", "Sushi", "Chè", "Xôi"
+    };
+    private static final String[] DISTRICTS = {
+            "Quận 1", "Quận 3", "Quận 5", "Quận 7", "Quận 10", "Bình Thạnh", "Phú Nhuận", "Thủ Đức"
+    };
+
+    private final HttpClient client;
+    private final URI base;
+    private final ObjectMapper json;
+    private final LoadTestConfig config;
+    private final Random rnd;
+
+    Seeder(HttpClient client, URI base, ObjectMapper json, LoadTestConfig config) {
+        this.client = client;
+        this.base = base;
+        this.json = json;
+        this.config = config;
+        this.rnd = new Random(config.seed());
+    }
+
+    SeedData seed() throws IOException, InterruptedException {
+        send(post("/api/roles?name=CUSTOMER&description=Customer"));
+        send(post("/api/roles?name=SELLER&description=Seller"));
+
+        long[] userIds = seedUsers();
+        // 1/10 user đầu là chủ cửa hàng
+        long[] ownerIds = Arrays.copyOf(userIds, Math.max(1, userIds.length / 10));
+        long[] storeIds = seedStores(ownerIds);
+        long[] addressIds = seedAddresses(userIds);
+        return new SeedData(userIds, storeIds, addressIds, searchTerms(), Long.toString(System.currentTimeMillis(), 36));
+    }
+
+    private long[] seedUsers() throws IOException, InterruptedException {
+        StringBuilder ndjson = new StringBuilder();
+        int owners = Math.max(1, config.users() / 10);
+        for (int i = 0; i < config.users(); i++) {
+            String roles = i < owners ? "[\"CUSTOMER\",\"SELLER\"]" : "[\"CUSTOMER\"]";
+            ndjson.append("""
+                    {"fullName":"Người dùng %1$d","email":"seed%1$d@qtifood.vn","phone":"09%2$08d","password":"Qtifood@2025","roles":%3$s}
+                    """.formatted(i, rnd.nextInt(100_000_000), roles));
+        }
+        JsonNode report = send(HttpRequest.newBuilder(base.resolve("/api/users/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString())));
+        if (report.path("failed").asLong() > 0) {
+            throw new IllegalStateException("User import failed: " + report);
+        }
+
+        // đọc lại id theo thứ tự tạo bằng phân trang keyset
+        List<Long> ids = new ArrayList<>(config.users());
+        String cursor = null;
+        do {
+            JsonNode page = send(HttpRequest.newBuilder(base.resolve("/api/users?size=100&fields=id"
+                    + (cursor == null ? "" : "&cursor=" + cursor))).GET());
+            for (JsonNode item : page.path("items")) ids.add(item.path("id").asLong());
+            cursor = page.path("nextCursor").isTextual() ? page.path("nextCursor").asText() : null;
+        } while (cursor != null);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long[] seedStores(long[] ownerIds) throws InterruptedException {
+        List<HttpRequest.Builder> requests = new ArrayList<>(config.stores());
+        for (int i = 0; i < config.stores(); i++) {
+            String name = DISHES[rnd.nextInt(DISHES.length)] + " " + DISTRICTS[rnd.nextInt(DISTRICTS.length)] + " " + i;
+            String body = String.format(Locale.ROOT, """
+                    {"ownerId":%d,"name":"%s","address":"%d Nguyễn Huệ, TP.HCM","description":"Quán số %d",\
+                    "latitude":%.6f,"longitude":%.6f,"phone":"028%07d","openTime":"06:00:00","closeTime":"22:00:00"}
+                    """, ownerIds[rnd.nextInt(ownerIds.length)], name, i, i,
+                    10.776889 + (rnd.nextDouble() - 0.5) * 0.3, 106.700806 + (rnd.nextDouble() - 0.5) * 0.3,
+                    rnd.nextInt(10_000_000));
+            requests.add(jsonPost("/api/stores", body));
+        }
+        return createAll(requests);
+    }
+
+    private long[] seedAddresses(long[] userIds) throws InterruptedException {
+        List<HttpRequest.Builder> requests = new ArrayList<>();
+        int n = Math.min(config.addressUsers(), userIds.length);
+        for (int u = 0; u < n; u++) {
+            for (int a = 0; a < config.addressesPerUser(); a++) {
+                String body = String.format(Locale.ROOT, """
+                        {"userId":%d,"receiver":"Người nhận %d","phone":"09%08d","address":"%d Lê Lợi, %s",\
+                        "latitude":%.6f,"longitude":%.6f}
+                        """, userIds[u], u, rnd.nextInt(100_000_000), a + 1, DISTRICTS[rnd.nextInt(DISTRICTS.length)],
+                        10.776889 + (rnd.nextDouble() - 0.5) * 0.3, 106.700806 + (rnd.nextDouble() - 0.5) * 0.3);
+                requests.add(jsonPost("/api/addresses", body));
+            }
+        }
+        return createAll(requests);
+    }
+
+    // từ khoá tìm kiếm: tên món, có cả dạng không dấu và tiền tố
+    private static String[] searchTerms() {
+        List<String> terms = new ArrayList<>();
+        for (String dish : DISHES) {
+            terms.add(dish);
+            terms.add(Normalizer.normalize(dish, Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "").replace('đ', 'd').replace('Đ', 'D').toLowerCase());
+            terms.add(dish.substring(0, Math.min(3, dish.length())));
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    // gửi song song (giới hạn PARALLELISM), trả về id theo đúng thứ tự request
+    private long[] createAll(List<HttpRequest.Builder> requests) throws InterruptedException {
+        Semaphore permits = new Semaphore(PARALLELISM);
+        List<Future<JsonNode>> results = new ArrayList<>(requests.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (HttpRequest.Builder request : requests) {
+                permits.acquire();
+                results.add(executor.submit(() -> {
+                    try {
+                        return send(request);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        long[] ids = new long[results.size()];
+        for (int i = 0; i < ids.length; i++) {
+            try {
+                ids[i] = results.get(i).get().path("id").asLong();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Seeding failed", e.getCause());
+            }
+        }
+        return ids;
+    }
+
+    private HttpRequest.Builder post(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).POST(HttpRequest.BodyPublishers.noBody());
+    }
+
+    private HttpRequest.Builder jsonPost(String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private JsonNode send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpRequest r = request.header("Accept", "application/json").build();
+        HttpResponse<String> response = client.send(r, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(r.method() + " " + r.uri() + " → " + response.statusCode() + ": " + response.body());
+        }
+        return response.body().isEmpty() ? json.nullNode() : json.readTree(response.body());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.qtifood.config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ClockConfig {
+    // Múi giờ dùng để tính "đang mở cửa" (openNow)
+    @Bean
+    public Clock clock(@Value("${app.time-zone:Asia/Ho_Chi_Minh}") String zone) {
+        return Clock.system(ZoneId.of(zone));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.qtifood.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.qtifood.jdbc.StatementListener;
+import com.example.qtifood.jdbc.TimedDataSource;
+
+@Configuration
+public class JdbcTimingConfig {
+    // Bọc DataSource để các StatementListener (SqlStatementStats...) nhận từng câu lệnh đã thực thi.
+    // static + ObjectProvider: BeanPostProcessor được tạo sớm, listener chỉ được lấy khi DataSource khởi tạo xong
+    @Bean
+    static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<StatementListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(dataSource, listeners.orderedStream().toList());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -2,18 +2,30 @@ package com.example.qtifood.controllers;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.qtifood.dtos.Addresses.AddressResponseDto;
 import com.example.qtifood.dtos.Addresses.CreateAddressDto;
 import com.example.qtifood.dtos.Addresses.UpdateAddressDto;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.jdbc.QueryBudget;
 import com.example.qtifood.services.AddressService;
+import com.example.qtifood.services.ExportService;
+import com.example.qtifood.utils.ETags;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+@Timed("qtifood.controller")
 @RestController
 @RequestMapping("/api/addresses")
 @RequiredArgsConstructor
@@ -21,16 +33,19 @@ import lombok.RequiredArgsConstructor;
 public class AddressController {
 
     private final AddressService addressService;
+    private final ExportService exportService;
 
     @PostMapping
     public ResponseEntity<AddressResponseDto> create(@Valid @RequestBody CreateAddressDto dto) {
         return ResponseEntity.ok(addressService.createAddress(dto));
     }
 
+    // If-Match (tuỳ chọn): ETag đã đọc; địa chỉ đã bị sửa sau đó → 412
     @PutMapping("/{id}")
     public ResponseEntity<AddressResponseDto> update(@PathVariable Long id,
-                                                     @Valid @RequestBody UpdateAddressDto dto) {
-        return ResponseEntity.ok(addressService.updateAddress(id, dto));
+                                                     @Valid @RequestBody UpdateAddressDto dto,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(addressService.updateAddress(id, dto, ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -39,23 +54,56 @@ public class AddressController {
         return ResponseEntity.noContent().build();
     }
 
+    @QueryBudget(2)
     @GetMapping
-    public ResponseEntity<List<AddressResponseDto>> getAll() {
-        return ResponseEntity.ok(addressService.getAllAddresses());
+    public ResponseEntity<CursorPage<?>> getAll(CursorRequest page,
+                                                @RequestParam(required = false) String fields) {
+        if (FieldSelection.requested(fields)) {
+            return ResponseEntity.ok(addressService.getAllAddressFields(fields, page));
+        }
+        return ResponseEntity.ok(addressService.getAllAddresses(page));
     }
 
+    // Accept: application/x-ndjson → export toàn bộ bảng theo dạng stream
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(exportService::exportAddresses);
+    }
+
+    // If-None-Match khớp → 304 chỉ sau 1 truy vấn count/max(updated_at)
+    @QueryBudget(2)
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<AddressResponseDto>> getByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(addressService.getAddressesByUserId(userId));
+    public ResponseEntity<List<?>> getByUserId(@PathVariable Long userId,
+                                               @RequestParam(required = false) String fields,
+                                               WebRequest request) {
+        String etag = addressService.getAddressListETag(userId, fields);
+        if (request.checkNotModified(etag)) return null;
+        List<?> body = FieldSelection.requested(fields)
+                ? addressService.getAddressFieldsByUserId(userId, fields)
+                : addressService.getAddressesByUserId(userId);
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    // 404 nếu user chưa có địa chỉ mặc định
+    @QueryBudget(1)
+    @GetMapping("/user/{userId}/default")
+    public ResponseEntity<AddressResponseDto> getDefault(@PathVariable Long userId) {
+        return ResponseEntity.of(addressService.getDefaultAddress(userId));
     }
 
     @PutMapping("/{id}/set-default")
-    public ResponseEntity<AddressResponseDto> setDefault(@PathVariable Long id) {
-        return ResponseEntity.ok(addressService.setDefaultAddress(id));
+    public ResponseEntity<AddressResponseDto> setDefault(@PathVariable Long id,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(addressService.setDefaultAddress(id, ifMatch));
     }
 
     @PutMapping("/{id}/set-undefault")
-    public ResponseEntity<AddressResponseDto> setUnDefault(@PathVariable Long id) {
-        return ResponseEntity.ok(addressService.setUnDefaultAddress(id));
+    public ResponseEntity<AddressResponseDto> setUnDefault(@PathVariable Long id,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(addressService.setUnDefaultAddress(id, ifMatch));
+    }
+
+    private static ResponseEntity<AddressResponseDto> withETag(AddressResponseDto dto) {
+        return ResponseEntity.ok().eTag(ETags.of(dto.getId(), dto.getUpdatedAt())).body(dto);
     }
 }
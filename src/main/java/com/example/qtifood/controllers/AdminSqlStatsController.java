@@ -0,0 +1,31 @@
+package com.example.qtifood.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.qtifood.dtos.admin.SqlStatsDto;
+import com.example.qtifood.jdbc.SqlStatementStats;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin/sql")
+@RequiredArgsConstructor
+public class AdminSqlStatsController {
+
+    private final SqlStatementStats sqlStatementStats;
+
+    // sort: total | max | count | mean
+    @GetMapping("/top")
+    public ResponseEntity<SqlStatsDto> top(@RequestParam(defaultValue = "20") int limit,
+                                           @RequestParam(defaultValue = "total") String sort) {
+        return ResponseEntity.ok(new SqlStatsDto(sqlStatementStats.since(), sqlStatementStats.top(limit, sort)));
+    }
+
+    // Xoá số liệu để đo lại từ đầu (ví dụ trước một đợt load test)
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        sqlStatementStats.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.qtifood.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.qtifood.dtos.admin.AdminStatsDto;
+import com.example.qtifood.services.AdminStatsService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+@RequiredArgsConstructor
+public class AdminStatsController {
+
+    private final AdminStatsService adminStatsService;
+
+    @GetMapping
+    public ResponseEntity<AdminStatsDto> get() {
+        return ResponseEntity.ok(adminStatsService.getStats());
+    }
+
+    // Ép đối soát ngay với DB (bình thường chạy định kỳ)
+    @PostMapping("/reconcile")
+    public ResponseEntity<AdminStatsDto> reconcile() {
+        adminStatsService.reconcile();
+        return ResponseEntity.ok(adminStatsService.getStats());
+    }
+}
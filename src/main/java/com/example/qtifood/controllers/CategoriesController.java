@@ -1,7 +1,9 @@
 package com.example.qtifood.controllers;
 
-import java.util.List;
+import java.io.InputStream;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,15 +12,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.qtifood.dtos.Categories.CategoryResponseDto;
 import com.example.qtifood.dtos.Categories.CreateCategoriesDto;
 import com.example.qtifood.dtos.Categories.UpdateCategoriesDto;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.PrecomputedJson;
+import com.example.qtifood.jdbc.QueryBudget;
 import com.example.qtifood.services.CategoriesService;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
+@Timed("qtifood.controller")
 @RestController
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
@@ -32,14 +42,35 @@ public class CategoriesController {
         return ResponseEntity.ok(category);
     }
 
+    // Body: text/csv, dòng đầu là header (name,description,imageUrl,isActive)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReportDto> importCsv(InputStream body) {
+        return ResponseEntity.ok(categoriesService.importCategories(body));
+    }
+
+    // Không có ?fields=: trả JSON dựng sẵn từ snapshot; Spring tự trả 304 khi If-None-Match khớp ETag
+    @QueryBudget(2)
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDto>> getAllCategories() {
-        return ResponseEntity.ok(categoriesService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(CursorRequest page,
+                                              @RequestParam(required = false) String fields) {
+        if (FieldSelection.requested(fields)) {
+            return ResponseEntity.ok(categoriesService.getAllCategoryFields(fields, page));
+        }
+        PrecomputedJson json = categoriesService.getAllCategoriesJson(page);
+        return ResponseEntity.ok()
+                .eTag(json.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.bytes());
     }
 
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponseDto> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<?> getCategoryById(@PathVariable Long id,
+                                             @RequestParam(required = false) String fields) {
+        if (FieldSelection.requested(fields)) {
+            return ResponseEntity.ok(categoriesService.getCategoryFieldsById(id, fields));
+        }
         return ResponseEntity.ok(categoriesService.getCategoryById(id));
     }
 
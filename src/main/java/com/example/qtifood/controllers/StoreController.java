@@ -1,18 +1,34 @@
 package com.example.qtifood.controllers;
 
+import java.io.InputStream;
+import java.time.LocalTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.qtifood.dtos.Stores.*;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.dtos.common.ImportReportDto;
 import com.example.qtifood.entities.StoreStatus;
+import com.example.qtifood.jdbc.QueryBudget;
+import com.example.qtifood.services.ExportService;
 import com.example.qtifood.services.StoreService;
+import com.example.qtifood.utils.ETags;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+@Timed("qtifood.controller")
 @RestController
 @RequestMapping("/api/stores")
 @RequiredArgsConstructor
@@ -20,16 +36,40 @@ import lombok.RequiredArgsConstructor;
 public class StoreController {
 
     private final StoreService storeService;
+    private final ExportService exportService;
 
     @PostMapping
     public ResponseEntity<StoreResponseDto> create(@Valid @RequestBody CreateStoreDto dto) {
         return ResponseEntity.ok(storeService.createStore(dto));
     }
 
+    // Body: text/csv, dòng đầu là header (ownerId,name,address,...)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReportDto> importCsv(InputStream body) {
+        return ResponseEntity.ok(storeService.importStores(body));
+    }
+
+    // If-Match (tuỳ chọn): ETag đã đọc; store đã bị sửa sau đó → 412
     @PutMapping("/{id}")
     public ResponseEntity<StoreResponseDto> update(@PathVariable Long id,
-                                                   @Valid @RequestBody UpdateStoreDto dto) {
-        return ResponseEntity.ok(storeService.updateStore(id, dto));
+                                                   @Valid @RequestBody UpdateStoreDto dto,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        StoreResponseDto updated = storeService.updateStore(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updated.getId(), updated.getUpdatedAt())).body(updated);
+    }
+
+    // If-None-Match khớp → 304 chỉ sau 1 truy vấn updated_at, chưa nạp entity
+    @QueryBudget(2)
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getById(@PathVariable Long id,
+                                     @RequestParam(required = false) String fields,
+                                     WebRequest request) {
+        String etag = storeService.getStoreETag(id, fields);
+        if (request.checkNotModified(etag)) return null;
+        Object body = FieldSelection.requested(fields)
+                ? storeService.getStoreFieldsById(id, fields)
+                : storeService.getStoreById(id);
+        return ResponseEntity.ok().eTag(etag).body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -38,29 +78,76 @@ public class StoreController {
         return ResponseEntity.noContent().build();
     }
 
+    // owner chỉ lấy id (proxy không nạp); +1 khi withTotal
+    @QueryBudget(2)
     @GetMapping
-    public ResponseEntity<List<StoreResponseDto>> getAll() {
-        return ResponseEntity.ok(storeService.getAllStores());
+    public ResponseEntity<CursorPage<?>> getAll(
+            CursorRequest page,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime openAt,
+            @RequestParam(defaultValue = "false") boolean openNow) {
+        if (FieldSelection.requested(fields)) {
+            return ResponseEntity.ok(storeService.getAllStoreFields(fields, page, openAt, openNow));
+        }
+        return ResponseEntity.ok(storeService.getAllStores(page, openAt, openNow));
     }
 
+    // Accept: application/x-ndjson → export toàn bộ bảng theo dạng stream
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(exportService::exportStores);
+    }
+
+    @QueryBudget(2)
     @GetMapping("/owner/{ownerId}")
-    public ResponseEntity<List<StoreResponseDto>> byOwner(@PathVariable Long ownerId) {
-        return ResponseEntity.ok(storeService.getStoresByOwner(ownerId));
+    public ResponseEntity<CursorPage<?>> byOwner(
+            @PathVariable Long ownerId,
+            CursorRequest page,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime openAt,
+            @RequestParam(defaultValue = "false") boolean openNow) {
+        if (FieldSelection.requested(fields)) {
+            return ResponseEntity.ok(storeService.getStoreFieldsByOwner(ownerId, fields, page, openAt, openNow));
+        }
+        return ResponseEntity.ok(storeService.getStoresByOwner(ownerId, page, openAt, openNow));
     }
 
+    @QueryBudget(1)
     @GetMapping("/search")
-    public ResponseEntity<List<StoreResponseDto>> search(@RequestParam("q") String q) {
-        return ResponseEntity.ok(storeService.searchByName(q));
+    public ResponseEntity<List<StoreResponseDto>> search(@RequestParam("q") String q,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(storeService.searchByName(q, limit));
+    }
+
+    @QueryBudget(1)
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyStoreResponseDto>> nearby(@RequestParam double lat,
+                                                               @RequestParam double lng,
+                                                               @RequestParam(defaultValue = "5") double radiusKm,
+                                                               @RequestParam(defaultValue = "20") int limit,
+                                                               @RequestParam(required = false) StoreStatus status) {
+        return ResponseEntity.ok(storeService.getNearbyStores(lat, lng, radiusKm, limit, status));
     }
 
+    @QueryBudget(2)
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<StoreResponseDto>> byStatus(@PathVariable StoreStatus status) {
-        return ResponseEntity.ok(storeService.getStoresByStatus(status));
+    public ResponseEntity<CursorPage<?>> byStatus(
+            @PathVariable StoreStatus status,
+            CursorRequest page,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime openAt,
+            @RequestParam(defaultValue = "false") boolean openNow) {
+        if (FieldSelection.requested(fields)) {
+            return ResponseEntity.ok(storeService.getStoreFieldsByStatus(status, fields, page, openAt, openNow));
+        }
+        return ResponseEntity.ok(storeService.getStoresByStatus(status, page, openAt, openNow));
     }
 
     @PutMapping("/{id}/status/{status}")
     public ResponseEntity<StoreResponseDto> setStatus(@PathVariable Long id,
-                                                      @PathVariable StoreStatus status) {
-        return ResponseEntity.ok(storeService.setStatus(id, status));
+                                                      @PathVariable StoreStatus status,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        StoreResponseDto updated = storeService.setStatus(id, status, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updated.getId(), updated.getUpdatedAt())).body(updated);
     }
 }
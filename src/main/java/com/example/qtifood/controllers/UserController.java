@@ -1,31 +1,64 @@
 // src/main/java/com/example/qtifood/controllers/UserController.java
 package com.example.qtifood.controllers;
 
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.dtos.common.ImportReportDto;
 import com.example.qtifood.dtos.user.*;
 import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.jdbc.QueryBudget;
+import com.example.qtifood.services.ExportService;
 import com.example.qtifood.services.UserService;
+import com.example.qtifood.utils.ETags;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+
+@Timed("qtifood.controller")
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
 
     private final UserService userService;
+    private final ExportService exportService;
 
+    // trang user + roles của cả trang; +1 khi withTotal
+    @QueryBudget(3)
     @GetMapping
-    public Page<UserResponseDto> list(Pageable pageable) {
-        return userService.getUsers(pageable);
+    public CursorPage<?> list(CursorRequest page, @RequestParam(required = false) String fields) {
+        if (FieldSelection.requested(fields)) {
+            return userService.getUserFields(fields, page);
+        }
+        return userService.getUsers(page);
+    }
+
+    // Accept: application/x-ndjson → export toàn bộ bảng theo dạng stream
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(exportService::exportUsers);
     }
 
+    // If-None-Match khớp → 304 chỉ sau 1 truy vấn updated_at, chưa nạp entity
+    @QueryBudget(3)
     @GetMapping("/{id}")
-    public UserResponseDto get(@PathVariable Long id) {
-        return userService.getUser(id);
+    public ResponseEntity<?> get(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                 WebRequest request) {
+        String etag = userService.getUserETag(id, fields);
+        if (request.checkNotModified(etag)) return null;
+        Object body = FieldSelection.requested(fields)
+                ? userService.getUserFieldsById(id, fields)
+                : userService.getUser(id);
+        return ResponseEntity.ok().eTag(etag).body(body);
     }
 
     @PostMapping
@@ -33,9 +66,18 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(dto));
     }
 
+    // Body: application/x-ndjson, mỗi dòng một CreateUserRequestDto (cùng định dạng với export)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReportDto bulkCreate(InputStream body) {
+        return userService.importUsers(body);
+    }
+
+    // If-Match (tuỳ chọn): ETag đã đọc; user đã bị sửa sau đó → 412
     @PutMapping("/{id}")
-    public UserResponseDto update(@PathVariable Long id, @RequestBody @Valid UpdateUserRequestDto dto) {
-        return userService.updateUser(id, dto);
+    public ResponseEntity<UserResponseDto> update(@PathVariable Long id, @RequestBody @Valid UpdateUserRequestDto dto,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponseDto updated = userService.updateUser(id, dto, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updated.id(), updated.updatedAt())).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -47,11 +89,22 @@ public class UserController {
     /* ====== Add/Remove role ====== */
     @PostMapping("/{id}/roles/{role}")
     public UserResponseDto addRole(@PathVariable Long id, @PathVariable RoleType role) {
-        return ((com.example.qtifood.services.impl.UserServiceImpl) userService).addRole(id, role);
+        return userService.addRole(id, role);
     }
 
     @DeleteMapping("/{id}/roles/{role}")
     public UserResponseDto removeRole(@PathVariable Long id, @PathVariable RoleType role) {
-        return ((com.example.qtifood.services.impl.UserServiceImpl) userService).removeRole(id, role);
+        return userService.removeRole(id, role);
+    }
+
+    // Gán/bỏ role cho nhiều user theo danh sách id hoặc bộ lọc
+    @PostMapping("/roles/{role}/assign")
+    public BulkRoleResultDto assignRole(@PathVariable RoleType role, @RequestBody BulkRoleRequestDto request) {
+        return userService.assignRole(role, request);
+    }
+
+    @PostMapping("/roles/{role}/revoke")
+    public BulkRoleResultDto revokeRole(@PathVariable RoleType role, @RequestBody BulkRoleRequestDto request) {
+        return userService.revokeRole(role, request);
     }
 }
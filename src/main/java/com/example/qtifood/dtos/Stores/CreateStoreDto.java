@@ -19,7 +19,7 @@ public class CreateStoreDto {
 
     private String description;
 
-    private Double latitude;   // gửi double; server sẽ convert BigDecimal
+    private Double latitude;   // gửi double; server lưu dạng microdegree (GeoPoint)
     private Double longitude;
 
     @Size(max = 20)
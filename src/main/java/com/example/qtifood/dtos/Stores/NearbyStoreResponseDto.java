@@ -0,0 +1,11 @@
+package com.example.qtifood.dtos.Stores;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class NearbyStoreResponseDto {
+    private StoreResponseDto store;
+    private Double distanceKm;
+}
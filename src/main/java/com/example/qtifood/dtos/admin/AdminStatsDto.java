@@ -0,0 +1,16 @@
+package com.example.qtifood.dtos.admin;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.StoreStatus;
+
+public record AdminStatsDto(
+        Map<StoreStatus, Long> storesByStatus,
+        Map<RoleType, Long> usersByRole,
+        // số user đăng ký theo ngày, giữ trong cửa sổ AdminStatsServiceImpl.SIGNUP_WINDOW_DAYS ngày gần nhất
+        Map<LocalDate, Long> signupsByDay,
+        LocalDateTime reconciledAt
+) {}
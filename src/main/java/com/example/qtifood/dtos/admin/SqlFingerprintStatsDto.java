@@ -0,0 +1,12 @@
+package com.example.qtifood.dtos.admin;
+
+// thời gian tính bằng ms, từ lúc khởi động hoặc lần reset gần nhất
+public record SqlFingerprintStatsDto(
+        String id,
+        String fingerprint,
+        long count,
+        long errors,
+        double totalMs,
+        double meanMs,
+        double maxMs
+) {}
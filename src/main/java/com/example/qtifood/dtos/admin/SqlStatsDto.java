@@ -0,0 +1,9 @@
+package com.example.qtifood.dtos.admin;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SqlStatsDto(
+        LocalDateTime since,
+        List<SqlFingerprintStatsDto> top
+) {}
@@ -0,0 +1,24 @@
+package com.example.qtifood.dtos.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Một trang kết quả keyset. {@code nextCursor == null} nghĩa là đã hết dữ liệu; trang có lọc có thể
+ * ít hơn {@code size} (kể cả rỗng) mà vẫn có {@code nextCursor}.
+ * {@code approximateTotal} chỉ có khi client yêu cầu và lấy từ thống kê của planner, không phải COUNT(*).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, Long approximateTotal) {
+
+    /**
+     * Dựng trang từ {@code rows} đã được sắp theo id tăng dần và lấy dư 1 dòng
+     * (xem {@link CursorRequest#fetchLimit()}).
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, CursorRequest req,
+                                          Function<E, Long> idOf, Function<E, T> mapper, Long approximateTotal) {
+        boolean hasNext = rows.size() > req.size();
+        List<E> page = hasNext ? rows.subList(0, req.size()) : rows;
+        String next = hasNext ? CursorRequest.encode(idOf.apply(page.get(page.size() - 1))) : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), next, approximateTotal);
+    }
+}
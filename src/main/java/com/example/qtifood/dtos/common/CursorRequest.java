@@ -0,0 +1,54 @@
+package com.example.qtifood.dtos.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Limit;
+
+/**
+ * Tham số phân trang keyset: {@code cursor} là token mờ (opaque) trả về từ trang trước,
+ * {@code size} bị chặn bởi {@link #MAX_SIZE}, {@code withTotal} yêu cầu tổng số bản ghi ước lượng.
+ */
+public record CursorRequest(String cursor, Integer size, Boolean withTotal) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String PREFIX = "id:";
+
+    public CursorRequest {
+        size = size == null ? DEFAULT_SIZE : Math.max(1, Math.min(size, MAX_SIZE));
+        withTotal = Boolean.TRUE.equals(withTotal);
+    }
+
+    public static CursorRequest first(int size) {
+        return new CursorRequest(null, size, false);
+    }
+
+    // id cuối cùng của trang trước; 0 nếu là trang đầu
+    public long afterId() {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (!raw.startsWith(PREFIX)) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        try {
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    // lấy thêm 1 dòng để biết còn trang sau hay không
+    public Limit fetchLimit() {
+        return Limit.of(size + 1);
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+}
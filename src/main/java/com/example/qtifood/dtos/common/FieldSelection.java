@@ -0,0 +1,47 @@
+package com.example.qtifood.dtos.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Danh sách field client yêu cầu qua {@code ?fields=id,name,status}.
+ * {@code columns} ánh xạ tên property của DTO → đường dẫn thuộc tính trên entity (ví dụ {@code ownerId → owner.id});
+ * {@code extras} là các field không phải cột (ví dụ {@code roles}) do service tự nạp.
+ * {@code id} luôn được chọn vì cần cho cursor.
+ */
+public record FieldSelection(Map<String, String> columns, Set<String> extras) {
+
+    public static FieldSelection parse(String raw, Map<String, String> allowedColumns) {
+        return parse(raw, allowedColumns, Set.of());
+    }
+
+    public static FieldSelection parse(String raw, Map<String, String> allowedColumns, Set<String> allowedExtras) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        Set<String> extras = new LinkedHashSet<>();
+        columns.put("id", allowedColumns.get("id"));
+        for (String f : raw.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (allowedColumns.containsKey(name)) {
+                columns.put(name, allowedColumns.get(name));
+            } else if (allowedExtras.contains(name)) {
+                extras.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+        }
+        return new FieldSelection(Collections.unmodifiableMap(columns), Collections.unmodifiableSet(extras));
+    }
+
+    // id của một dòng projection, dùng làm khoá cursor
+    public static Long idOf(Map<String, Object> row) {
+        return (Long) row.get("id");
+    }
+
+    public static boolean requested(String raw) {
+        return raw != null && !raw.isBlank();
+    }
+}
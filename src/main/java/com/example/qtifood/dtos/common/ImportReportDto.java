@@ -0,0 +1,16 @@
+package com.example.qtifood.dtos.common;
+
+import java.util.List;
+
+/**
+ * Kết quả import hàng loạt (CSV, NDJSON). {@code errors} chỉ giữ tối đa một số lỗi đầu tiên; {@code failed} là tổng số dòng lỗi.
+ */
+public record ImportReportDto(
+        long totalRows,
+        long imported,
+        long failed,
+        List<RowError> errors
+) {
+    // line: số dòng trong file (với CSV, dòng header là 1)
+    public record RowError(long line, String message) {}
+}
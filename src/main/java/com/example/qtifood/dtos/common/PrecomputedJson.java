@@ -0,0 +1,7 @@
+package com.example.qtifood.dtos.common;
+
+/**
+ * Body JSON đã serialize sẵn cùng ETag mạnh (hash của chính các byte đó).
+ * Mảng {@code bytes} được chia sẻ giữa các request, không được sửa.
+ */
+public record PrecomputedJson(byte[] bytes, String etag) {}
@@ -0,0 +1,19 @@
+package com.example.qtifood.dtos.user;
+
+import java.util.Set;
+
+import com.example.qtifood.entities.RoleType;
+
+// Chọn user theo danh sách id và/hoặc bộ lọc; nếu có cả hai thì lấy giao. Phải có ít nhất một điều kiện.
+public record BulkRoleRequestDto(
+        Set<Long> userIds,
+        // chỉ user đang có role này
+        RoleType hasRole,
+        Boolean isActive,
+        // true: chỉ user sở hữu ít nhất một cửa hàng; false: chỉ user chưa có cửa hàng
+        Boolean storeOwner
+) {
+    public boolean hasFilter() {
+        return hasRole != null || isActive != null || storeOwner != null;
+    }
+}
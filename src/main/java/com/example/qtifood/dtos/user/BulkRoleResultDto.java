@@ -0,0 +1,10 @@
+package com.example.qtifood.dtos.user;
+
+import com.example.qtifood.entities.RoleType;
+
+// targeted: số user được chọn; changed: số dòng user_roles thực sự thêm/xóa
+public record BulkRoleResultDto(
+        RoleType role,
+        int targeted,
+        int changed
+) {}
@@ -1,6 +1,5 @@
 package com.example.qtifood.entities;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -18,7 +17,8 @@ import lombok.*;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Address {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addresses_seq")
+    @SequenceGenerator(name = "addresses_seq", sequenceName = "addresses_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 100, nullable = false)
@@ -30,11 +30,10 @@ public class Address {
     @Column(length = 255, nullable = false)
     private String address;
 
-    @Column(name = "lat", precision = 9, scale = 6)
-    private BigDecimal latitude;
-
-    @Column(name = "log", precision = 9, scale = 6)
-    private BigDecimal longitude;
+    @Embedded
+    @AttributeOverride(name = "latE6", column = @Column(name = "lat", precision = 9, scale = 6))
+    @AttributeOverride(name = "lngE6", column = @Column(name = "log", precision = 9, scale = 6))
+    private GeoPoint location;
 
     @Builder.Default
     @Column(name = "is_default", nullable = false)
@@ -52,4 +51,15 @@ public class Address {
     @JoinColumn(name = "user_id", nullable = false,
         foreignKey = @ForeignKey(name = "fk_addresses_user"))
     private User user;
+
+    // cặp toạ độ thiếu một nửa (dữ liệu cũ) coi như chưa có toạ độ
+    public GeoPoint getLocation() {
+        return location != null && location.isComplete() ? location : null;
+    }
+
+    // cập nhật từng phần; chỉ ghi khi ghép được đủ cặp vĩ độ/kinh độ
+    public void mergeLocation(Double lat, Double lng) {
+        GeoPoint merged = GeoPoint.merge(location, lat, lng);
+        if (merged != null) location = merged;
+    }
 }
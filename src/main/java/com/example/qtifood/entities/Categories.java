@@ -14,7 +14,8 @@ import lombok.*;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Categories {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 100, nullable = false, unique = false)
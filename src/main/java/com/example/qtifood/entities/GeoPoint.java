@@ -0,0 +1,107 @@
+package com.example.qtifood.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toạ độ dạng fixed-point: vĩ độ/kinh độ lưu bằng số nguyên microdegree (độ × 10^6, sai số ≤ 0.11 m),
+ * đúng bằng độ chính xác của cột numeric(9,6) trong DB. Có thể gói gọn trong một {@code long}
+ * (xem {@link #packed()}) để các index trong bộ nhớ giữ toạ độ bằng mảng nguyên thuỷ.
+ * Vĩ độ và kinh độ luôn đi cùng nhau: entity không có toạ độ thì {@code location == null}.
+ * Dòng cũ có thể chỉ có một trong hai cột; Hibernate vẫn dựng GeoPoint (xem {@link #isComplete()})
+ * và entity coi đó là chưa có toạ độ, nên hai field là {@code Integer} chứ không phải {@code int}.
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class GeoPoint {
+
+    public static final double SCALE = 1_000_000d;
+
+    @Convert(converter = MicrodegreeConverter.class)
+    @Column(name = "latitude", precision = 9, scale = 6)
+    private Integer latE6;
+
+    @Convert(converter = MicrodegreeConverter.class)
+    @Column(name = "longitude", precision = 9, scale = 6)
+    private Integer lngE6;
+
+    private GeoPoint(int latE6, int lngE6) {
+        this.latE6 = latE6;
+        this.lngE6 = lngE6;
+    }
+
+    public static GeoPoint ofMicrodegrees(int latE6, int lngE6) {
+        return new GeoPoint(latE6, lngE6);
+    }
+
+    // null nếu thiếu vĩ độ hoặc kinh độ: một toạ độ đơn lẻ bị bỏ qua như trước khi có GeoPoint
+    public static GeoPoint ofDegrees(Double lat, Double lng) {
+        if (lat == null || lng == null) return null;
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + lat + ", " + lng);
+        }
+        return new GeoPoint(toMicrodegrees(lat), toMicrodegrees(lng));
+    }
+
+    // cập nhật từng phần: giá trị null giữ nguyên toạ độ cũ (kể cả nửa toạ độ của dòng cũ);
+    // chưa ghép đủ cặp thì trả về null
+    public static GeoPoint merge(GeoPoint current, Double lat, Double lng) {
+        if (lat == null && lng == null) return current;
+        if (current == null) return ofDegrees(lat, lng);
+        return ofDegrees(lat != null ? lat : degreesOrNull(current.latE6),
+                lng != null ? lng : degreesOrNull(current.lngE6));
+    }
+
+    private static Double degreesOrNull(Integer microdegrees) {
+        return microdegrees != null ? toDegrees(microdegrees) : null;
+    }
+
+    public boolean isComplete() {
+        return latE6 != null && lngE6 != null;
+    }
+
+    public double latitude() {
+        return toDegrees(latE6);
+    }
+
+    public double longitude() {
+        return toDegrees(lngE6);
+    }
+
+    public long packed() {
+        return pack(latE6, lngE6);
+    }
+
+    public static int toMicrodegrees(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    public static double toDegrees(int microdegrees) {
+        return microdegrees / SCALE;
+    }
+
+    // vĩ độ ở 32 bit cao, kinh độ ở 32 bit thấp
+    public static long pack(int latE6, int lngE6) {
+        return ((long) latE6 << 32) | (lngE6 & 0xFFFFFFFFL);
+    }
+
+    public static int unpackLat(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int unpackLng(long packed) {
+        return (int) packed;
+    }
+
+    @Override
+    public String toString() {
+        return isComplete() ? latitude() + "," + longitude() : latE6 + "," + lngE6;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.qtifood.entities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// numeric(9,6) ↔ microdegree; BigDecimal chỉ tồn tại ở ranh giới JDBC
+@Converter
+public class MicrodegreeConverter implements AttributeConverter<Integer, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Integer microdegrees) {
+        return microdegrees == null ? null : BigDecimal.valueOf(microdegrees, 6);
+    }
+
+    @Override
+    public Integer convertToEntityAttribute(BigDecimal degrees) {
+        return degrees == null ? null : degrees.setScale(6, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+}
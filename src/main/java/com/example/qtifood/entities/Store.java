@@ -1,6 +1,5 @@
 package com.example.qtifood.entities;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
@@ -15,8 +14,8 @@ import lombok.*;
 @Table(
     name = "stores",
     indexes = {
-        @Index(name = "idx_stores_owner_id", columnList = "owner_id"),
-        @Index(name = "idx_stores_status", columnList = "status")
+        @Index(name = "idx_stores_owner_id_id", columnList = "owner_id, id"),
+        @Index(name = "idx_stores_status_id", columnList = "status, id")
     }
 )
 @Getter @Setter
@@ -24,7 +23,8 @@ import lombok.*;
 public class Store {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stores_seq")
+    @SequenceGenerator(name = "stores_seq", sequenceName = "stores_seq", allocationSize = 50)
     private Long id;
 
     // owner_id → user sở hữu cửa hàng
@@ -42,11 +42,9 @@ public class Store {
     @Column(length = 255)
     private String address;
 
-    @Column(name = "latitude", precision = 9, scale = 6)
-    private BigDecimal latitude;
-
-    @Column(name = "longitude", precision = 9, scale = 6)
-    private BigDecimal longitude;
+    // cột latitude/longitude numeric(9,6)
+    @Embedded
+    private GeoPoint location;
 
     @Column(length = 20)
     private String phone;
@@ -75,4 +73,15 @@ public class Store {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // cặp toạ độ thiếu một nửa (dữ liệu cũ) coi như chưa có toạ độ
+    public GeoPoint getLocation() {
+        return location != null && location.isComplete() ? location : null;
+    }
+
+    // toạ độ chỉ đổi khi ghép được đủ cặp, nửa toạ độ cũ không bị xoá bởi lần cập nhật khác
+    public void mergeLocation(Double lat, Double lng) {
+        GeoPoint merged = GeoPoint.merge(location, lat, lng);
+        if (merged != null) location = merged;
+    }
 }
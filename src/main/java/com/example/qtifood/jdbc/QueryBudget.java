@@ -0,0 +1,20 @@
+package com.example.qtifood.jdbc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Số câu lệnh SQL tối đa một request vào endpoint này được chạy (gồm cả kiểm tra ETag, nạp quan hệ...).
+ * Vượt ngân sách thì {@link QueryBudgetFilter} ghi log WARN và đếm {@code qtifood.sql.budget.exceeded};
+ * trong test, QueryBudgetExtension đánh trượt test. Đặt trên class là mặc định cho mọi method.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,155 @@
+package com.example.qtifood.jdbc;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Đếm câu lệnh SQL của từng request và so với {@link QueryBudget} của handler.
+ * Khi {@code app.sql.query-headers=true} (profile dev) trả thêm header {@value #COUNT_HEADER}
+ * và {@value #TIME_HEADER} (ms), ghi ngay trước khi response bắt đầu gửi body.
+ */
+@Slf4j
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time";
+    private static final int MAX_VIOLATIONS = 100;
+
+    private final QueryCounter counter;
+    private final MeterRegistry registry;
+    private final boolean headers;
+    private final Deque<Violation> violations = new ConcurrentLinkedDeque<>();
+
+    public QueryBudgetFilter(QueryCounter counter, MeterRegistry registry,
+                             @Value("${app.sql.query-headers:false}") boolean headers) {
+        this.counter = counter;
+        this.registry = registry;
+        this.headers = headers;
+    }
+
+    public record Violation(String handler, String request, int statements, int budget) {}
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Counts counts = counter.begin();
+        CountHeaderResponse wrapped = headers ? new CountHeaderResponse(response, counts) : null;
+        try {
+            chain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            counter.end();
+            // response không có body (204, 304) chưa commit đến lúc này
+            if (wrapped != null) wrapped.writeHeaders();
+            check(request, counts);
+        }
+    }
+
+    /** Các lần vượt ngân sách gần nhất (tối đa {@value #MAX_VIOLATIONS}). */
+    public List<Violation> violations() {
+        return List.copyOf(violations);
+    }
+
+    public void clearViolations() {
+        violations.clear();
+    }
+
+    private void check(HttpServletRequest request, QueryCounter.Counts counts) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+            return;
+        }
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), QueryBudget.class);
+        if (budget == null || counts.statements() <= budget.value()) return;
+
+        String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        Violation violation = new Violation(name, request.getMethod() + " " + request.getRequestURI(),
+                counts.statements(), budget.value());
+        log.warn("Query budget exceeded by {}: {} statements (budget {}) in {} ms for {}", name,
+                counts.statements(), budget.value(), String.format(Locale.ROOT, "%.1f", counts.millis()),
+                violation.request());
+        Counter.builder("qtifood.sql.budget.exceeded")
+                .description("Request chạy nhiều câu lệnh SQL hơn @QueryBudget của handler")
+                .tag("handler", name)
+                .register(registry)
+                .increment();
+        violations.addLast(violation);
+        while (violations.size() > MAX_VIOLATIONS) violations.pollFirst();
+    }
+
+    private static final class CountHeaderResponse extends HttpServletResponseWrapper {
+
+        private final QueryCounter.Counts counts;
+        private boolean written;
+
+        CountHeaderResponse(HttpServletResponse response, QueryCounter.Counts counts) {
+            super(response);
+            this.counts = counts;
+        }
+
+        void writeHeaders() {
+            if (written) return;
+            written = true;
+            if (isCommitted()) return;
+            setHeader(COUNT_HEADER, Integer.toString(counts.statements()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.2f", counts.millis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
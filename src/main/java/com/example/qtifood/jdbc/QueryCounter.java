@@ -0,0 +1,48 @@
+package com.example.qtifood.jdbc;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Đếm số câu lệnh và tổng thời gian thực thi trên luồng hiện tại giữa {@link #begin()} và {@link #end()}
+ * (mỗi request một luồng, xem {@link QueryBudgetFilter}). Câu lệnh chạy ngoài request không được đếm.
+ */
+@Component
+public class QueryCounter implements StatementListener {
+
+    private final ThreadLocal<Counts> current = new ThreadLocal<>();
+
+    public Counts begin() {
+        Counts counts = new Counts();
+        current.set(counts);
+        return counts;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    @Override
+    public void afterExecute(String sql, long elapsedNanos, boolean failed) {
+        Counts counts = current.get();
+        if (counts != null) counts.record(elapsedNanos);
+    }
+
+    // chỉ luồng sở hữu ghi nên không cần đồng bộ
+    public static final class Counts {
+        private int statements;
+        private long nanos;
+
+        void record(long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        public double millis() {
+            return nanos / 1e6;
+        }
+    }
+}
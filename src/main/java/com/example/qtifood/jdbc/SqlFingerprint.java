@@ -0,0 +1,51 @@
+package com.example.qtifood.jdbc;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hoá SQL thành "fingerprint": bỏ chú thích, thay literal (chuỗi, số) bằng {@code ?},
+ * gộp danh sách {@code IN (?, ?, ...)} thành {@code in (?+)}, gộp khoảng trắng và viết thường.
+ * Hai câu chỉ khác tham số (hoặc độ dài danh sách IN) cho cùng một fingerprint.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern LINE_COMMENT = Pattern.compile("--[^\\n]*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:''|[^'])*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // SQL của Hibernate lặp lại nguyên văn nên cache theo chuỗi gốc; chặn kích thước để SQL sinh động không làm phình map
+    private static final int CACHE_LIMIT = 10_000;
+    private static final ConcurrentMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {}
+
+    public static String of(String sql) {
+        String cached = CACHE.get(sql);
+        if (cached != null) return cached;
+        String fp = normalize(sql);
+        if (CACHE.size() < CACHE_LIMIT) CACHE.putIfAbsent(sql, fp);
+        return fp;
+    }
+
+    static String normalize(String sql) {
+        String s = BLOCK_COMMENT.matcher(sql).replaceAll(" ");
+        s = LINE_COMMENT.matcher(s).replaceAll(" ");
+        s = STRING_LITERAL.matcher(s).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("in (?+)");
+        return WHITESPACE.matcher(s).replaceAll(" ").strip().toLowerCase(Locale.ROOT);
+    }
+
+    // id ngắn để tìm dòng log tương ứng với một dòng trong bảng top-N
+    public static String id(String fingerprint) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < fingerprint.length(); i++) h = 31 * h + fingerprint.charAt(i);
+        return String.format("%016x", h);
+    }
+}
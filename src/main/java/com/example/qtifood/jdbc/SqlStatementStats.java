@@ -0,0 +1,108 @@
+package com.example.qtifood.jdbc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.qtifood.dtos.admin.SqlFingerprintStatsDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thống kê theo fingerprint SQL (count, tổng và max thời gian) bằng LongAdder/AtomicLong, không khoá.
+ * Câu lệnh chạy lâu hơn {@code app.sql.slow-threshold} được ghi log WARN kèm SQL gốc;
+ * thay cho show-sql (in mọi câu lệnh ra stdout một cách đồng bộ).
+ */
+@Slf4j
+@Component
+public class SqlStatementStats implements StatementListener {
+
+    // fingerprint vượt giới hạn được gộp vào một dòng chung
+    static final String OVERFLOW = "<other>";
+    private static final int MAX_LOGGED_SQL = 2_000;
+
+    private final long slowThresholdNanos;
+    private final int maxFingerprints;
+    private final ConcurrentMap<String, Aggregate> byFingerprint = new ConcurrentHashMap<>();
+    private volatile LocalDateTime since = LocalDateTime.now();
+
+    public SqlStatementStats(@Value("${app.sql.slow-threshold:200ms}") Duration slowThreshold,
+                             @Value("${app.sql.max-fingerprints:2000}") int maxFingerprints) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    @Override
+    public void afterExecute(String sql, long elapsedNanos, boolean failed) {
+        String fingerprint = SqlFingerprint.of(sql);
+        aggregate(fingerprint).record(elapsedNanos, failed);
+        if (elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow SQL {} ms [{}]{}: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    SqlFingerprint.id(fingerprint), failed ? " (failed)" : "",
+                    sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "…" : sql);
+        }
+    }
+
+    /** {@code limit} fingerprint đứng đầu theo {@code sort}: total (mặc định), max, count hoặc mean. */
+    public List<SqlFingerprintStatsDto> top(int limit, String sort) {
+        Comparator<SqlFingerprintStatsDto> order = switch (sort == null ? "total" : sort) {
+            case "total" -> Comparator.comparingDouble(SqlFingerprintStatsDto::totalMs);
+            case "max" -> Comparator.comparingDouble(SqlFingerprintStatsDto::maxMs);
+            case "count" -> Comparator.comparingLong(SqlFingerprintStatsDto::count);
+            case "mean" -> Comparator.comparingDouble(SqlFingerprintStatsDto::meanMs);
+            default -> throw new IllegalArgumentException("Unsupported sort: " + sort + " (total, max, count, mean)");
+        };
+        return byFingerprint.entrySet().stream()
+                .map(e -> e.getValue().toDto(e.getKey()))
+                .sorted(order.reversed())
+                .limit(Math.max(1, limit))
+                .toList();
+    }
+
+    public LocalDateTime since() {
+        return since;
+    }
+
+    public void reset() {
+        byFingerprint.clear();
+        since = LocalDateTime.now();
+    }
+
+    private Aggregate aggregate(String fingerprint) {
+        Aggregate a = byFingerprint.get(fingerprint);
+        if (a != null) return a;
+        if (byFingerprint.size() >= maxFingerprints) fingerprint = OVERFLOW;
+        return byFingerprint.computeIfAbsent(fingerprint, k -> new Aggregate());
+    }
+
+    private static final class Aggregate {
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            if (failed) errors.increment();
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) max = maxNanos.get();
+        }
+
+        SqlFingerprintStatsDto toDto(String fingerprint) {
+            long n = count.sum();
+            double totalMs = totalNanos.sum() / 1e6;
+            return new SqlFingerprintStatsDto(SqlFingerprint.id(fingerprint), fingerprint, n, errors.sum(),
+                    totalMs, n == 0 ? 0 : totalMs / n, maxNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.qtifood.jdbc;
+
+/**
+ * Nhận mỗi lần thực thi JDBC (execute/executeQuery/executeUpdate/executeBatch) đi qua {@link TimedDataSource}.
+ * Được gọi đồng bộ trên luồng đang chạy câu lệnh nên phải nhanh và không ném exception.
+ */
+public interface StatementListener {
+
+    /**
+     * @param sql         SQL gốc (đã prepare, chưa có tham số)
+     * @param elapsedNanos thời gian của lời gọi execute (không gồm thời gian đọc ResultSet)
+     * @param failed      câu lệnh ném SQLException
+     */
+    void afterExecute(String sql, long elapsedNanos, boolean failed);
+}
@@ -0,0 +1,132 @@
+package com.example.qtifood.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Bọc DataSource (Hikari) để đo từng lần thực thi câu lệnh và báo cho các {@link StatementListener}.
+ * Connection và Statement trả ra là dynamic proxy; mọi method khác chuyển thẳng xuống driver.
+ * Là {@link DelegatingDataSource} nên Spring Boot vẫn unwrap được về HikariDataSource (metrics của pool).
+ */
+public class TimedDataSource extends DelegatingDataSource {
+
+    private final List<StatementListener> listeners;
+
+    public TimedDataSource(DataSource target, List<StatementListener> listeners) {
+        super(target);
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private void publish(String sql, long elapsedNanos, boolean failed) {
+        for (StatementListener l : listeners) l.afterExecute(sql, elapsedNanos, failed);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // equals/hashCode theo proxy (Hibernate giữ Statement trong HashMap); null = chuyển xuống driver
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> args != null && args.length == 1 ? proxy == args[0] : null;
+            case "hashCode" -> method.getParameterCount() == 0 ? System.identityHashCode(proxy) : null;
+            default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) return identity;
+            Object result = TimedDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> statement(result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall" -> statement(result, CallableStatement.class, (String) args[0]);
+                case "createStatement" -> statement(result, Statement.class, null);
+                default -> result;
+            };
+        }
+
+        private Object statement(Object statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(),
+                    new Class<?>[] {type}, new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        // SQL của PreparedStatement; Statement thường lấy SQL từ tham số của execute/addBatch
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) return identity;
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) return TimedDataSource.invoke(target, method, args);
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : batchSql;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = TimedDataSource.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                if (name.endsWith("Batch")) batchSql = null;
+                if (sql != null) publish(sql, System.nanoTime() - start, failed);
+            }
+        }
+    }
+}
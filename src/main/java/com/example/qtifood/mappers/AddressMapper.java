@@ -1,9 +1,23 @@
 package com.example.qtifood.mappers;
 
+import java.util.Map;
+
 import com.example.qtifood.dtos.Addresses.AddressResponseDto;
 import com.example.qtifood.entities.Address;
 
 public class AddressMapper {
+    // field của AddressResponseDto → thuộc tính entity, dùng cho ?fields=
+    public static final Map<String, String> FIELD_PATHS = Map.of(
+            "id", "id",
+            "receiver", "receiver",
+            "phone", "phone",
+            "address", "address",
+            "latitude", "location.latE6",
+            "longitude", "location.lngE6",
+            "isDefault", "isDefault",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt");
+
     public static AddressResponseDto toDto(Address a) {
         if (a == null) return null;
         return AddressResponseDto.builder()
@@ -11,9 +25,8 @@ public class AddressMapper {
                 .receiver(a.getReceiver())
                 .phone(a.getPhone())
                 .address(a.getAddress())
-                // Nếu entity dùng BigDecimal:
-                .latitude(a.getLatitude() == null ? null : a.getLatitude().doubleValue())
-                .longitude(a.getLongitude() == null ? null : a.getLongitude().doubleValue())
+                .latitude(a.getLocation() == null ? null : a.getLocation().latitude())
+                .longitude(a.getLocation() == null ? null : a.getLocation().longitude())
                 .isDefault(a.getIsDefault())
                 .createdAt(a.getCreatedAt())
                 .updatedAt(a.getUpdatedAt())
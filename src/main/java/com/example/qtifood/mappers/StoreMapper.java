@@ -1,11 +1,29 @@
 package com.example.qtifood.mappers;
 
-import java.math.BigDecimal;
+import java.util.Map;
 
 import com.example.qtifood.dtos.Stores.StoreResponseDto;
 import com.example.qtifood.entities.Store;
 
 public class StoreMapper {
+    // field của StoreResponseDto → thuộc tính entity, dùng cho ?fields=
+    public static final Map<String, String> FIELD_PATHS = Map.ofEntries(
+        Map.entry("id", "id"),
+        Map.entry("ownerId", "owner.id"),
+        Map.entry("name", "name"),
+        Map.entry("description", "description"),
+        Map.entry("address", "address"),
+        Map.entry("latitude", "location.latE6"),
+        Map.entry("longitude", "location.lngE6"),
+        Map.entry("phone", "phone"),
+        Map.entry("email", "email"),
+        Map.entry("imageUrl", "imageUrl"),
+        Map.entry("status", "status"),
+        Map.entry("openTime", "openTime"),
+        Map.entry("closeTime", "closeTime"),
+        Map.entry("createdAt", "createdAt"),
+        Map.entry("updatedAt", "updatedAt"));
+
     public static StoreResponseDto toDto(Store s) {
         if (s == null) return null;
         return StoreResponseDto.builder()
@@ -14,8 +32,8 @@ public class StoreMapper {
             .name(s.getName())
             .description(s.getDescription())
             .address(s.getAddress())
-            .latitude(s.getLatitude() == null ? null : s.getLatitude().doubleValue())
-            .longitude(s.getLongitude() == null ? null : s.getLongitude().doubleValue())
+            .latitude(s.getLocation() == null ? null : s.getLocation().latitude())
+            .longitude(s.getLocation() == null ? null : s.getLocation().longitude())
             .phone(s.getPhone())
             .email(s.getEmail())
             .imageUrl(s.getImageUrl())
@@ -26,9 +44,4 @@ public class StoreMapper {
             .updatedAt(s.getUpdatedAt())
             .build();
     }
-
-    // helper
-    public static BigDecimal toBD(Double v) {
-        return v == null ? null : BigDecimal.valueOf(v);
-    }
 }
@@ -0,0 +1,46 @@
+package com.example.qtifood.mappers;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.example.qtifood.dtos.user.UserResponseDto;
+import com.example.qtifood.entities.Role;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.User;
+
+public class UserMapper {
+    // field của UserResponseDto → thuộc tính entity, dùng cho ?fields=; "roles" được nạp riêng
+    public static final Map<String, String> FIELD_PATHS = Map.of(
+            "id", "id",
+            "fullName", "fullName",
+            "email", "email",
+            "phone", "phone",
+            "avatarUrl", "avatarUrl",
+            "dateOfBirth", "dateOfBirth",
+            "gender", "gender",
+            "isActive", "isActive",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt");
+    public static final Set<String> EXTRA_FIELDS = Set.of("roles");
+
+    // u.getRoles() là LAZY → 1 truy vấn mỗi user; với danh sách dùng toDto(u, roles) đã nạp theo trang
+    public static UserResponseDto toDto(User u) {
+        if (u == null) return null;
+        Set<RoleType> roleNames = u.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(RoleType.class)));
+        return toDto(u, roleNames);
+    }
+
+    public static UserResponseDto toDto(User u, Set<RoleType> roleNames) {
+        if (u == null) return null;
+        return new UserResponseDto(
+                u.getId(), u.getFullName(), u.getEmail(), u.getPhone(),
+                u.getAvatarUrl(), u.getDateOfBirth(), u.getGender(),
+                u.getIsActive(), u.getCreatedAt(), u.getUpdatedAt(),
+                roleNames
+        );
+    }
+}
@@ -1,17 +1,56 @@
 package com.example.qtifood.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+
 import com.example.qtifood.entities.Address;
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUserId(Long userId);
+    List<Address> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // đọc đúng 1 dòng qua index partial (user_id) WHERE is_default, xem db/addresses-single-default.sql
+    Optional<Address> findByUserIdAndIsDefaultTrue(Long userId);
+
+    @Query("select coalesce(a.updatedAt, {ts '1970-01-01 00:00:00'}) from Address a where a.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // dấu vân tay của danh sách địa chỉ một user, xem ETags.ofList
+    @Query("select count(a) as count, max(a.updatedAt) as maxUpdatedAt from Address a where a.user.id = :userId")
+    ListVersion findListVersionByUserId(@Param("userId") Long userId);
+
+    // xem StoreRepository.touchIfUnmodified
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Address a set a.updatedAt = :now "
+            + "where a.id = :id and coalesce(a.updatedAt, {ts '1970-01-01 00:00:00'}) = :expected")
+    int touchIfUnmodified(@Param("id") Long id, @Param("expected") LocalDateTime expected,
+                          @Param("now") LocalDateTime now);
+
+    interface ListVersion {
+        long getCount();
+        LocalDateTime getMaxUpdatedAt();
+    }
+
+    // Khoá dòng user sở hữu địa chỉ: các lần đổi mặc định của cùng một user chạy tuần tự.
+    // Trả về rỗng nếu địa chỉ không tồn tại.
+    @Query(value = "select u.id from users u where u.id = (select a.user_id from addresses a where a.id = :addressId) "
+            + "for update", nativeQuery = true)
+    Optional<Long> lockUserByAddressId(@Param("addressId") Long addressId);
 
+    // Đổi địa chỉ mặc định trong 1 câu UPDATE: chỉ chạm dòng đang mặc định và dòng được chọn.
+    // Trả về 0 nếu địa chỉ không tồn tại.
     @Modifying(clearAutomatically = true, flushAutomatically = true)
-    @Query("update Address a set a.isDefault = false where a.user.id = :userId and a.id <> :keepId")
-    void unsetOthersDefault(@Param("userId") Long userId, @Param("keepId") Long keepId);
+    @Query("update Address a set a.isDefault = case when a.id = :addressId then true else false end, "
+            + "a.updatedAt = :now "
+            + "where a.user.id = (select a2.user.id from Address a2 where a2.id = :addressId) "
+            + "and (a.isDefault = true or a.id = :addressId)")
+    int switchDefault(@Param("addressId") Long addressId, @Param("now") LocalDateTime now);
 }
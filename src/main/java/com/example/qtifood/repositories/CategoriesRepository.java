@@ -4,5 +4,4 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import com.example.qtifood.entities.Categories;
 
 public interface CategoriesRepository extends JpaRepository<Categories, Long> {
-    
 }
@@ -0,0 +1,86 @@
+package com.example.qtifood.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Repository;
+
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.entities.GeoPoint;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Truy vấn projection động cho {@code ?fields=}: chỉ SELECT các cột được yêu cầu vào {@link Tuple},
+ * không hydrate entity nên không có snapshot dirty-check trong persistence context.
+ */
+@Repository
+public class ProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Seek theo id ({@code id > afterId order by id limit}). Giá trị trong {@code filters} là
+     * {@link Collection} sẽ sinh {@code IN}, còn lại sinh {@code =}. {@code limit <= 0} nghĩa là không giới hạn.
+     */
+    public List<Map<String, Object>> seek(Class<?> entity, FieldSelection fields, Map<String, Object> filters,
+                                          long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> q = cb.createTupleQuery();
+        Root<?> root = q.from(entity);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        fields.columns().forEach((name, path) -> selections.add(path(root, path).alias(name)));
+        q.multiselect(selections);
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.greaterThan(root.<Long>get("id"), afterId));
+        filters.forEach((path, value) -> where.add(value instanceof Collection<?> c
+                ? path(root, path).in(c)
+                : cb.equal(path(root, path), value)));
+        q.where(where.toArray(Predicate[]::new));
+        q.orderBy(cb.asc(root.get("id")));
+
+        TypedQuery<Tuple> query = entityManager.createQuery(q);
+        if (limit > 0) query.setMaxResults(limit);
+        List<Tuple> rows = query.getResultList();
+        List<Map<String, Object>> out = new ArrayList<>(rows.size());
+        for (Tuple t : rows) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            for (String name : fields.columns().keySet()) {
+                Object v = t.get(name);
+                // thuộc tính *E6 là toạ độ microdegree (GeoPoint) nhưng DTO trả về độ dạng Double
+                m.put(name, v instanceof Integer e6 && fields.columns().get(name).endsWith("E6")
+                        ? (Object) GeoPoint.toDegrees(e6) : v);
+            }
+            out.add(m);
+        }
+        return out;
+    }
+
+    public Optional<Map<String, Object>> findById(Class<?> entity, FieldSelection fields, Long id) {
+        return seek(entity, fields, Map.of("id", id), 0L, 1).stream().findFirst();
+    }
+
+    private static Path<Object> path(Root<?> root, String dotted) {
+        Path<Object> p = null;
+        for (String part : dotted.split("\\.")) {
+            p = p == null ? root.get(part) : p.get(part);
+        }
+        return p;
+    }
+}
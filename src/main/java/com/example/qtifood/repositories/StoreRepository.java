@@ -1,13 +1,55 @@
 package com.example.qtifood.repositories;
 
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 
+import com.example.qtifood.entities.GeoPoint;
 import com.example.qtifood.entities.Store;
 import com.example.qtifood.entities.StoreStatus;
 
 public interface StoreRepository extends JpaRepository<Store, Long> {
     List<Store> findByOwnerId(Long ownerId);
     List<Store> findByStatus(StoreStatus status);
-    List<Store> findByNameContainingIgnoreCase(String name);
+
+    // keyset pagination theo id, dùng index (owner_id, id) / (status, id)
+    List<Store> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    List<Store> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long afterId, Limit limit);
+    List<Store> findByStatusAndIdGreaterThanOrderByIdAsc(StoreStatus status, Long afterId, Limit limit);
+
+    @Query("select coalesce(s.updatedAt, {ts '1970-01-01 00:00:00'}) from Store s where s.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // If-Match: chỉ ghi khi updated_at vẫn là giá trị client đã đọc (compare-and-set, không SELECT FOR UPDATE).
+    // Dòng bị UPDATE giữ khoá ghi đến hết transaction nên request song song thứ hai thấy 0 dòng.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Store s set s.updatedAt = :now "
+            + "where s.id = :id and coalesce(s.updatedAt, {ts '1970-01-01 00:00:00'}) = :expected")
+    int touchIfUnmodified(@Param("id") Long id, @Param("expected") LocalDateTime expected,
+                          @Param("now") LocalDateTime now);
+
+    // [status, count] cho thống kê admin
+    @Query("select s.status, count(s) from Store s group by s.status")
+    List<Object[]> countGroupByStatus();
+
+    // projection nhẹ dùng để nạp các index trong bộ nhớ, không hydrate entity
+    List<StoreIndexView> findAllProjectedBy();
+
+    interface StoreIndexView {
+        Long getId();
+        String getName();
+        GeoPoint getLocation();
+        StoreStatus getStatus();
+        LocalTime getOpenTime();
+        LocalTime getCloseTime();
+        LocalDateTime getUpdatedAt();
+    }
 }
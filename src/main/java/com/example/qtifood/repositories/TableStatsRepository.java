@@ -0,0 +1,30 @@
+package com.example.qtifood.repositories;
+
+import java.util.List;
+
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@Repository
+public class TableStatsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Số dòng ước lượng của bảng theo thống kê của PostgreSQL (pg_class.reltuples),
+     * không quét bảng. Trả về null nếu bảng chưa từng được ANALYZE.
+     */
+    public Long estimateRowCount(String table) {
+        List<?> rows = entityManager
+                .createNativeQuery("select c.reltuples::bigint from pg_class c where c.oid = to_regclass(:table)")
+                .setParameter("table", table)
+                .getResultList();
+        Object v = rows.isEmpty() ? null : rows.get(0);
+        if (v == null) return null;
+        long n = ((Number) v).longValue();
+        return n < 0 ? null : n;
+    }
+}
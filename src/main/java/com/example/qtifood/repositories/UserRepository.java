@@ -1,12 +1,108 @@
 // src/main/java/com/example/qtifood/repositories/UserRepository.java
 package com.example.qtifood.repositories;
 
+import com.example.qtifood.entities.RoleType;
 import com.example.qtifood.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     Optional<User> findByEmail(String email);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // email đã chuẩn hóa (lower-case), dùng index ux_users_email_lower; excludeId = user đang cập nhật
+    @Query("select count(u) > 0 from User u where lower(u.email) = :email and u.id <> :excludeId")
+    boolean existsByNormalizedEmail(@Param("email") String normalizedEmail, @Param("excludeId") Long excludeId);
+
+    // import hàng loạt: email (đã chuẩn hóa) nào trong lô đã tồn tại
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    Set<String> findExistingNormalizedEmails(@Param("emails") Collection<String> normalizedEmails);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u.email from User u where u.email is not null")
+    Stream<String> streamAllEmails();
+
+    @Query("select u.id from User u where u.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // [userId, role] của nhiều user trong 1 truy vấn
+    @Query("select u.id, r.name from User u join u.roles r where u.id in :ids")
+    List<Object[]> findRoleNamesByUserIds(@Param("ids") Collection<Long> ids);
+
+    // userId → EnumSet role, gom từ findRoleNamesByUserIds
+    default Map<Long, Set<RoleType>> findRoleTypesByUserIds(Collection<Long> ids) {
+        Map<Long, Set<RoleType>> byUser = new HashMap<>();
+        if (ids.isEmpty()) return byUser;
+        for (Object[] r : findRoleNamesByUserIds(ids)) {
+            byUser.computeIfAbsent((Long) r[0], k -> EnumSet.noneOf(RoleType.class)).add((RoleType) r[1]);
+        }
+        return byUser;
+    }
+
+    // chọn user cho gán/bỏ role hàng loạt; tham số null = bỏ qua điều kiện
+    @Query("select u.id from User u "
+            + "where (:isActive is null or u.isActive = :isActive) "
+            + "and (:hasRole is null or exists (select 1 from User u2 join u2.roles r where u2.id = u.id and r.name = :hasRole)) "
+            + "and (:storeOwner is null "
+            + "     or (:storeOwner = true and exists (select 1 from Store s where s.owner.id = u.id)) "
+            + "     or (:storeOwner = false and not exists (select 1 from Store s where s.owner.id = u.id))) "
+            + "order by u.id")
+    List<Long> findIdsByRoleFilter(@Param("hasRole") RoleType hasRole,
+                                   @Param("isActive") Boolean isActive,
+                                   @Param("storeOwner") Boolean storeOwner);
+
+    // Gán/bỏ role trực tiếp trên bảng nối, không nạp entity; id không tồn tại bị bỏ qua.
+    // PK (user_id, role_id) của user_roles → ON CONFLICT bỏ qua user đã có role
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "insert into user_roles (user_id, role_id) "
+            + "select u.id, :roleId from users u where u.id in (:userIds) "
+            + "on conflict do nothing", nativeQuery = true)
+    int insertUserRoles(@Param("userIds") Collection<Long> userIds, @Param("roleId") Long roleId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "delete from user_roles where role_id = :roleId and user_id in (:userIds)", nativeQuery = true)
+    int deleteUserRoles(@Param("userIds") Collection<Long> userIds, @Param("roleId") Long roleId);
+
+    // roles nằm trong UserResponseDto nhưng đổi user_roles không chạm users → cập nhật updated_at để ETag đổi theo
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update User u set u.updatedAt = :now where u.id in :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("select coalesce(u.updatedAt, {ts '1970-01-01 00:00:00'}) from User u where u.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // xem StoreRepository.touchIfUnmodified
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update User u set u.updatedAt = :now "
+            + "where u.id = :id and coalesce(u.updatedAt, {ts '1970-01-01 00:00:00'}) = :expected")
+    int touchIfUnmodified(@Param("id") Long id, @Param("expected") LocalDateTime expected,
+                          @Param("now") LocalDateTime now);
+
+    // [role, count] và [ngày, count] cho thống kê admin
+    @Query("select r.name, count(u) from User u join u.roles r group by r.name")
+    List<Object[]> countGroupByRole();
+
+    // created_at theo múi giờ JVM (@CreationTimestamp); chia ngày theo app.time-zone ở phía gọi
+    @Query("select u.createdAt from User u where u.createdAt >= :since")
+    List<LocalDateTime> findCreatedAtSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,155 @@
+package com.example.qtifood.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Băm mật khẩu trên một pool riêng, kích thước bằng số core và hàng đợi có giới hạn.
+ * Gọi trước khi mở transaction để connection DB không bị giữ trong lúc BCrypt chạy (~100 ms/lần).
+ * Khi hàng đợi đầy, request bị từ chối ngay với 503 thay vì dồn ứ CPU.
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.hash-threads:0}") int threads,
+                          @Value("${app.security.hash-queue-capacity:256}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("qtifood.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Password hash tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("qtifood.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("qtifood.password.hash.wait")
+                .description("Time a hash task spent queued")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("qtifood.password.hash")
+                .description("BCrypt encode time")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("qtifood.password.hash.rejected")
+                .description("Hash tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        try {
+            return hashAsync(rawPassword).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        try {
+            return submit(rawPassword);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing is overloaded, retry later");
+        }
+    }
+
+    /**
+     * Băm cả lô song song trên cùng pool (import hàng loạt), kết quả theo đúng thứ tự đầu vào.
+     * Lô chỉ giữ tối đa số-thread task cùng lúc nên không chiếm hết hàng đợi của đăng ký thường;
+     * khi hàng đợi đầy thì chờ rồi thử lại thay vì trả 503.
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        Semaphore inFlight = new Semaphore(executor.getCorePoolSize());
+        List<CompletableFuture<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (String raw : rawPasswords) {
+                inFlight.acquire();
+                CompletableFuture<String> f;
+                while (true) {
+                    try {
+                        f = submit(raw);
+                        break;
+                    } catch (RejectedExecutionException e) {
+                        Thread.sleep(10);
+                    }
+                }
+                futures.add(f.whenComplete((h, e) -> inFlight.release()));
+            }
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (CompletableFuture<String> f : futures) hashes.add(f.get());
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private CompletableFuture<String> submit(String rawPassword) {
+        long queuedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            return hashTimer.record(() -> passwordEncoder.encode(rawPassword));
+        }, executor);
+    }
+
+    // Đo thời gian băm với cost hiện tại lúc khởi động để dễ chọn app.security.bcrypt-strength
+    @EventListener(ApplicationReadyEvent.class)
+    public void logCost() {
+        passwordEncoder.encode("warm-up");
+        int rounds = 3;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) passwordEncoder.encode("benchmark-" + i);
+        long avgMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / rounds;
+        log.info("Password hashing: {} threads, queue capacity {}, ~{} ms per hash",
+                executor.getCorePoolSize(), executor.getQueue().remainingCapacity(), avgMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,17 +1,27 @@
 package com.example.qtifood.services;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import com.example.qtifood.dtos.Addresses.AddressResponseDto;
 import com.example.qtifood.dtos.Addresses.CreateAddressDto;
 import com.example.qtifood.dtos.Addresses.UpdateAddressDto;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
 
 public interface AddressService {
     AddressResponseDto createAddress(CreateAddressDto dto);
-    AddressResponseDto updateAddress(Long id, UpdateAddressDto dto);
+    // ifMatch: header If-Match (null = không điều kiện); bản ghi đã đổi → 412
+    AddressResponseDto updateAddress(Long id, UpdateAddressDto dto, String ifMatch);
     void deleteAddress(Long id);
-    List<AddressResponseDto> getAllAddresses();
+    CursorPage<AddressResponseDto> getAllAddresses(CursorRequest page);
     List<AddressResponseDto> getAddressesByUserId(Long userId);
-    AddressResponseDto setDefaultAddress(Long id);
-    AddressResponseDto setUnDefaultAddress(Long id);
+    Optional<AddressResponseDto> getDefaultAddress(Long userId);
+    CursorPage<Map<String, Object>> getAllAddressFields(String fields, CursorRequest page);
+    List<Map<String, Object>> getAddressFieldsByUserId(Long userId, String fields);
+    // ETag của danh sách địa chỉ một user: count + max(updated_at), không nạp entity
+    String getAddressListETag(Long userId, String fields);
+    AddressResponseDto setDefaultAddress(Long id, String ifMatch);
+    AddressResponseDto setUnDefaultAddress(Long id, String ifMatch);
 }
@@ -0,0 +1,24 @@
+package com.example.qtifood.services;
+
+import java.util.Set;
+
+import com.example.qtifood.dtos.admin.AdminStatsDto;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.StoreStatus;
+
+public interface AdminStatsService {
+    AdminStatsDto getStats();
+
+    // Đối soát lại toàn bộ bộ đếm với DB
+    void reconcile();
+
+    // Các hook ghi nhận thay đổi; chỉ áp dụng khi transaction hiện tại commit
+    void onStoreCreated(StoreStatus status);
+    void onStoreStatusChanged(StoreStatus from, StoreStatus to);
+    void onStoreDeleted(StoreStatus status);
+    void onUserCreated(Set<RoleType> roles);
+    void onUserDeleted(Set<RoleType> roles);
+    void onUserRolesChanged(Set<RoleType> before, Set<RoleType> after);
+    // gán/bỏ role hàng loạt: delta = số user thêm (+) hoặc mất (-) role
+    void onRoleMembersChanged(RoleType role, long delta);
+}
@@ -1,21 +1,33 @@
 package com.example.qtifood.services;
 
-import java.util.List;
+import java.io.InputStream;
+import java.util.Map;
 
 import com.example.qtifood.dtos.Categories.CreateCategoriesDto;
 import com.example.qtifood.dtos.Categories.UpdateCategoriesDto;
 import com.example.qtifood.dtos.Categories.CategoryResponseDto;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.PrecomputedJson;
 
 public interface CategoriesService {
 
     // Tạo mới
     CategoryResponseDto createCategories(CreateCategoriesDto dto);
 
-    // Lấy tất cả
-    List<CategoryResponseDto> getAllCategories();
+    // Import CSV theo chunk; header: name,description,imageUrl,isActive
+    ImportReportDto importCategories(InputStream csv);
+
+    // Lấy tất cả (phân trang keyset)
+    CursorPage<CategoryResponseDto> getAllCategories(CursorRequest page);
+    // cùng trang đó, đã serialize sẵn kèm ETag
+    PrecomputedJson getAllCategoriesJson(CursorRequest page);
+    CursorPage<Map<String, Object>> getAllCategoryFields(String fields, CursorRequest page);
 
     // Lấy 1 bản ghi theo id
     CategoryResponseDto getCategoryById(Long id);
+    Map<String, Object> getCategoryFieldsById(Long id, String fields);
 
     // Cập nhật
     CategoryResponseDto updateCategory(Long id, UpdateCategoriesDto dto);
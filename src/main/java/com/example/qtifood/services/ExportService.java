@@ -0,0 +1,11 @@
+package com.example.qtifood.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Xuất toàn bộ bảng dưới dạng NDJSON (mỗi dòng một JSON object), ghi thẳng ra response
+public interface ExportService {
+    void exportStores(OutputStream out) throws IOException;
+    void exportUsers(OutputStream out) throws IOException;
+    void exportAddresses(OutputStream out) throws IOException;
+}
@@ -1,19 +1,43 @@
 package com.example.qtifood.services;
 
+import java.io.InputStream;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 import com.example.qtifood.dtos.Stores.*;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.ImportReportDto;
 import com.example.qtifood.entities.StoreStatus;
 
 public interface StoreService {
     StoreResponseDto createStore(CreateStoreDto dto);
-    StoreResponseDto updateStore(Long id, UpdateStoreDto dto);
+    // import CSV theo chunk; header là tên field của CreateStoreDto
+    ImportReportDto importStores(InputStream csv);
+    // ifMatch: header If-Match (null = không điều kiện); bản ghi đã đổi → 412
+    StoreResponseDto updateStore(Long id, UpdateStoreDto dto, String ifMatch);
     void deleteStore(Long id);
 
-    List<StoreResponseDto> getAllStores();
-    List<StoreResponseDto> getStoresByOwner(Long ownerId);
-    List<StoreResponseDto> searchByName(String q);
-    List<StoreResponseDto> getStoresByStatus(StoreStatus status);
+    StoreResponseDto getStoreById(Long id);
+    Map<String, Object> getStoreFieldsById(Long id, String fields);
+    // ETag của GET /api/stores/{id}, chỉ đọc cột updated_at
+    String getStoreETag(Long id, String fields);
 
-    StoreResponseDto setStatus(Long id, StoreStatus status);
+    // openAt != null hoặc openNow = true → chỉ trả về các cửa hàng đang mở tại thời điểm đó
+    CursorPage<StoreResponseDto> getAllStores(CursorRequest page, LocalTime openAt, boolean openNow);
+    CursorPage<StoreResponseDto> getStoresByOwner(Long ownerId, CursorRequest page, LocalTime openAt, boolean openNow);
+
+    // ?fields=: chỉ trả về các field được chọn, đọc bằng projection query
+    CursorPage<Map<String, Object>> getAllStoreFields(String fields, CursorRequest page, LocalTime openAt, boolean openNow);
+    CursorPage<Map<String, Object>> getStoreFieldsByOwner(Long ownerId, String fields, CursorRequest page,
+                                                          LocalTime openAt, boolean openNow);
+    CursorPage<Map<String, Object>> getStoreFieldsByStatus(StoreStatus status, String fields, CursorRequest page,
+                                                           LocalTime openAt, boolean openNow);
+
+    List<StoreResponseDto> searchByName(String q, int limit);
+    CursorPage<StoreResponseDto> getStoresByStatus(StoreStatus status, CursorRequest page, LocalTime openAt, boolean openNow);
+    List<NearbyStoreResponseDto> getNearbyStores(double lat, double lng, double radiusKm, int limit, StoreStatus status);
+
+    StoreResponseDto setStatus(Long id, StoreStatus status, String ifMatch);
 }
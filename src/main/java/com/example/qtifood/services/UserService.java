@@ -1,16 +1,33 @@
 // src/main/java/com/example/qtifood/services/UserService.java
 package com.example.qtifood.services;
 
+import com.example.qtifood.dtos.user.BulkRoleRequestDto;
+import com.example.qtifood.dtos.user.BulkRoleResultDto;
 import com.example.qtifood.dtos.user.CreateUserRequestDto;
 import com.example.qtifood.dtos.user.UpdateUserRequestDto;
 import com.example.qtifood.dtos.user.UserResponseDto;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.example.qtifood.entities.RoleType;
+
+import java.io.InputStream;
+import java.util.Map;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.ImportReportDto;
 
 public interface UserService {
-    Page<UserResponseDto> getUsers(Pageable pageable);
+    CursorPage<UserResponseDto> getUsers(CursorRequest page);
     UserResponseDto getUser(Long id);
+    CursorPage<Map<String, Object>> getUserFields(String fields, CursorRequest page);
+    Map<String, Object> getUserFieldsById(Long id, String fields);
+    // ETag của GET /api/users/{id}, chỉ đọc cột updated_at
+    String getUserETag(Long id, String fields);
     UserResponseDto createUser(CreateUserRequestDto dto);
-    UserResponseDto updateUser(Long id, UpdateUserRequestDto dto);
+    // ifMatch: header If-Match (null = không điều kiện); bản ghi đã đổi → 412
+    UserResponseDto updateUser(Long id, UpdateUserRequestDto dto, String ifMatch);
     void deleteUser(Long id);
+    ImportReportDto importUsers(InputStream ndjson);
+    UserResponseDto addRole(Long userId, RoleType role);
+    UserResponseDto removeRole(Long userId, RoleType role);
+    BulkRoleResultDto assignRole(RoleType role, BulkRoleRequestDto request);
+    BulkRoleResultDto revokeRole(RoleType role, BulkRoleRequestDto request);
 }
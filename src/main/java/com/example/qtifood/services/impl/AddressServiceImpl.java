@@ -1,21 +1,35 @@
 package com.example.qtifood.services.impl;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.example.qtifood.dtos.Addresses.AddressResponseDto;
 import com.example.qtifood.dtos.Addresses.CreateAddressDto;
 import com.example.qtifood.dtos.Addresses.UpdateAddressDto;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
 import com.example.qtifood.entities.Address;
+import com.example.qtifood.entities.GeoPoint;
 import com.example.qtifood.entities.User;
 import com.example.qtifood.mappers.AddressMapper;
 import com.example.qtifood.repositories.AddressRepository;
+import com.example.qtifood.repositories.ProjectionRepository;
+import com.example.qtifood.repositories.TableStatsRepository;
 import com.example.qtifood.repositories.UserRepository;
 import com.example.qtifood.services.AddressService;
+import com.example.qtifood.utils.ETags;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -25,6 +39,8 @@ public class AddressServiceImpl implements AddressService {
 
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
+    private final TableStatsRepository tableStatsRepository;
+    private final ProjectionRepository projectionRepository;
 
     @Override
     public AddressResponseDto createAddress(CreateAddressDto dto) {
@@ -35,9 +51,7 @@ public class AddressServiceImpl implements AddressService {
                 .receiver(dto.getReceiver())
                 .phone(dto.getPhone())
                 .address(dto.getAddress())
-                // Nếu entity dùng BigDecimal cho tọa độ:
-                .latitude(dto.getLatitude() == null ? null : BigDecimal.valueOf(dto.getLatitude()))
-                .longitude(dto.getLongitude() == null ? null : BigDecimal.valueOf(dto.getLongitude()))
+                .location(GeoPoint.ofDegrees(dto.getLatitude(), dto.getLongitude()))
                 .isDefault(false)
                 .user(user)
                 .build();
@@ -47,21 +61,24 @@ public class AddressServiceImpl implements AddressService {
     }
 
     @Override
-    public AddressResponseDto updateAddress(Long id, UpdateAddressDto dto) {
+    public AddressResponseDto updateAddress(Long id, UpdateAddressDto dto, String ifMatch) {
+        boolean makeDefault = Boolean.TRUE.equals(dto.getIsDefault());
+        if (makeDefault) lockOwner(id);
+        checkIfMatch(id, ifMatch);
         Address address = addressRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Address not found: " + id));
 
         if (dto.getReceiver() != null)   address.setReceiver(dto.getReceiver());
         if (dto.getPhone() != null)      address.setPhone(dto.getPhone());
         if (dto.getAddress() != null)    address.setAddress(dto.getAddress());
-        if (dto.getLatitude() != null)   address.setLatitude(BigDecimal.valueOf(dto.getLatitude()));
-        if (dto.getLongitude() != null)  address.setLongitude(BigDecimal.valueOf(dto.getLongitude()));
+        address.mergeLocation(dto.getLatitude(), dto.getLongitude());
 
-        if (Boolean.TRUE.equals(dto.getIsDefault())) {
-            applyDefaultForUser(address);
+        if (makeDefault) {
+            // switchDefault flush các thay đổi ở trên trước khi chạy rồi clear persistence context
+            return switchDefault(id);
         }
 
-        Address updated = addressRepository.save(address);
+        Address updated = addressRepository.saveAndFlush(address);
         return AddressMapper.toDto(updated);
     }
 
@@ -75,44 +92,94 @@ public class AddressServiceImpl implements AddressService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<AddressResponseDto> getAllAddresses() {
-        return addressRepository.findAll()
-                .stream().map(AddressMapper::toDto).toList();
+    public CursorPage<AddressResponseDto> getAllAddresses(CursorRequest page) {
+        Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("addresses") : null;
+        return CursorPage.of(addressRepository.findByIdGreaterThanOrderByIdAsc(page.afterId(), page.fetchLimit()),
+                page, Address::getId, AddressMapper::toDto, total);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Timed("qtifood.service")
     public List<AddressResponseDto> getAddressesByUserId(Long userId) {
         return addressRepository.findByUserId(userId)
                 .stream().map(AddressMapper::toDto).toList();
     }
 
     @Override
-    public AddressResponseDto setDefaultAddress(Long id) {
-        Address a = addressRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Address not found: " + id));
+    @Transactional(readOnly = true)
+    public String getAddressListETag(Long userId, String fields) {
+        AddressRepository.ListVersion v = addressRepository.findListVersionByUserId(userId);
+        return ETags.ofList(v.getCount(), v.getMaxUpdatedAt(), fields);
+    }
 
-        addressRepository.unsetOthersDefault(a.getUser().getId(), a.getId());
-        a.setIsDefault(true);
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AddressResponseDto> getDefaultAddress(Long userId) {
+        return addressRepository.findByUserIdAndIsDefaultTrue(userId).map(AddressMapper::toDto);
+    }
 
-        return AddressMapper.toDto(addressRepository.save(a));
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getAllAddressFields(String fields, CursorRequest page) {
+        FieldSelection fs = FieldSelection.parse(fields, AddressMapper.FIELD_PATHS);
+        Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("addresses") : null;
+        return CursorPage.of(projectionRepository.seek(Address.class, fs, Map.of(), page.afterId(), page.size() + 1),
+                page, FieldSelection::idOf, Function.identity(), total);
     }
 
     @Override
-    public AddressResponseDto setUnDefaultAddress(Long id) {
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAddressFieldsByUserId(Long userId, String fields) {
+        FieldSelection fs = FieldSelection.parse(fields, AddressMapper.FIELD_PATHS);
+        return projectionRepository.seek(Address.class, fs, Map.of("user.id", userId), 0L, 0);
+    }
+
+    @Override
+    public AddressResponseDto setDefaultAddress(Long id, String ifMatch) {
+        lockOwner(id);
+        checkIfMatch(id, ifMatch);
+        return switchDefault(id);
+    }
+
+    // Khoá user trước cả compare-and-set của If-Match: mọi transaction đổi mặc định khoá theo cùng thứ tự
+    // (user rồi mới tới các dòng addresses) nên không deadlock, và transaction sau thấy mặc định mới đã commit.
+    private void lockOwner(Long id) {
+        if (addressRepository.lockUserByAddressId(id).isEmpty()) {
+            throw new RuntimeException("Address not found: " + id);
+        }
+    }
+
+    private AddressResponseDto switchDefault(Long id) {
+        // flush riêng thay đổi đang chờ (updateAddress) để lỗi của chúng không bị báo thành 409 bên dưới
+        addressRepository.flush();
+        try {
+            if (addressRepository.switchDefault(id, ETags.now()) == 0) {
+                throw new RuntimeException("Address not found: " + id);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // ux_addresses_user_default: chỉ xảy ra khi dòng mặc định được ghi ngoài lockOwner
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Default address was changed concurrently", e);
+        }
+        return AddressMapper.toDto(addressRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Address not found: " + id)));
+    }
+
+    @Override
+    public AddressResponseDto setUnDefaultAddress(Long id, String ifMatch) {
+        checkIfMatch(id, ifMatch);
         Address a = addressRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Address not found: " + id));
 
         a.setIsDefault(false);
-        return AddressMapper.toDto(addressRepository.save(a));
+        return AddressMapper.toDto(addressRepository.saveAndFlush(a));
     }
 
-    private void applyDefaultForUser(Address target) {
-        Long userId = target.getUser().getId();
-        List<Address> all = addressRepository.findByUserId(userId);
-        for (Address a : all) {
-            a.setIsDefault(a.getId().equals(target.getId()));
-        }
-        addressRepository.saveAll(all);
+    // compare-and-set trên updated_at thay cho khoá bi quan; chạy trước findById vì query clear persistence context
+    private void checkIfMatch(Long id, String ifMatch) {
+        LocalDateTime expected = ETags.expectedUpdatedAt(ifMatch, id);
+        if (expected == null || addressRepository.touchIfUnmodified(id, expected, ETags.now()) == 1) return;
+        if (!addressRepository.existsById(id)) throw new RuntimeException("Address not found: " + id);
+        throw ETags.preconditionFailed(id);
     }
 }
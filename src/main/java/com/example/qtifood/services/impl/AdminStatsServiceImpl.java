@@ -0,0 +1,159 @@
+package com.example.qtifood.services.impl;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qtifood.dtos.admin.AdminStatsDto;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.StoreStatus;
+import com.example.qtifood.repositories.StoreRepository;
+import com.example.qtifood.repositories.UserRepository;
+import com.example.qtifood.services.AdminStatsService;
+import com.example.qtifood.utils.TransactionHooks;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bộ đếm trong bộ nhớ cho dashboard admin: đọc O(1), được cập nhật sau khi transaction ghi commit
+ * và định kỳ đối soát với DB để sửa các sai lệch (ví dụ ghi từ instance khác hoặc race khi đối soát).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdminStatsServiceImpl implements AdminStatsService {
+
+    static final int SIGNUP_WINDOW_DAYS = 30;
+
+    private final StoreRepository storeRepository;
+    private final UserRepository userRepository;
+    private final Clock clock;
+
+    private final Map<StoreStatus, AtomicLong> storesByStatus = newCounters(StoreStatus.class);
+    private final Map<RoleType, AtomicLong> usersByRole = newCounters(RoleType.class);
+    private final ConcurrentMap<LocalDate, AtomicLong> signupsByDay = new ConcurrentHashMap<>();
+    private volatile LocalDateTime reconciledAt;
+
+    @Override
+    public AdminStatsDto getStats() {
+        Map<StoreStatus, Long> stores = new EnumMap<>(StoreStatus.class);
+        storesByStatus.forEach((k, v) -> stores.put(k, v.get()));
+        Map<RoleType, Long> roles = new EnumMap<>(RoleType.class);
+        usersByRole.forEach((k, v) -> roles.put(k, v.get()));
+        Map<LocalDate, Long> signups = new TreeMap<>();
+        LocalDate from = windowStart();
+        signupsByDay.forEach((day, v) -> {
+            if (!day.isBefore(from)) signups.put(day, v.get());
+        });
+        return new AdminStatsDto(stores, roles, signups, reconciledAt);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.admin-stats.reconcile-interval:PT10M}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        Map<StoreStatus, Long> stores = new EnumMap<>(StoreStatus.class);
+        for (Object[] row : storeRepository.countGroupByStatus()) {
+            stores.put((StoreStatus) row[0], ((Number) row[1]).longValue());
+        }
+        Map<RoleType, Long> roles = new EnumMap<>(RoleType.class);
+        for (Object[] row : userRepository.countGroupByRole()) {
+            roles.put((RoleType) row[0], ((Number) row[1]).longValue());
+        }
+        // ngày đăng ký tính theo múi giờ của clock (như onUserCreated), không theo múi giờ lưu created_at
+        ZoneId storageZone = ZoneId.systemDefault();
+        LocalDateTime since = windowStart().atStartOfDay(clock.getZone())
+                .withZoneSameInstant(storageZone).toLocalDateTime();
+        Map<LocalDate, Long> signups = new TreeMap<>();
+        for (LocalDateTime createdAt : userRepository.findCreatedAtSince(since)) {
+            LocalDate day = createdAt.atZone(storageZone).withZoneSameInstant(clock.getZone()).toLocalDate();
+            signups.merge(day, 1L, Long::sum);
+        }
+
+        storesByStatus.forEach((k, v) -> v.set(stores.getOrDefault(k, 0L)));
+        usersByRole.forEach((k, v) -> v.set(roles.getOrDefault(k, 0L)));
+        signupsByDay.keySet().removeIf(day -> !signups.containsKey(day));
+        signups.forEach((day, n) -> signupsByDay.computeIfAbsent(day, d -> new AtomicLong()).set(n));
+        reconciledAt = LocalDateTime.now(clock);
+        log.debug("Admin stats reconciled: stores={}, roles={}", stores, roles);
+    }
+
+    @Override
+    public void onStoreCreated(StoreStatus status) {
+        TransactionHooks.afterCommit(() -> storesByStatus.get(status).incrementAndGet());
+    }
+
+    @Override
+    public void onStoreStatusChanged(StoreStatus from, StoreStatus to) {
+        if (from == to) return;
+        TransactionHooks.afterCommit(() -> {
+            storesByStatus.get(from).decrementAndGet();
+            storesByStatus.get(to).incrementAndGet();
+        });
+    }
+
+    @Override
+    public void onStoreDeleted(StoreStatus status) {
+        TransactionHooks.afterCommit(() -> storesByStatus.get(status).decrementAndGet());
+    }
+
+    @Override
+    public void onUserCreated(Set<RoleType> roles) {
+        Set<RoleType> copy = Set.copyOf(roles);
+        LocalDate today = LocalDate.now(clock);
+        TransactionHooks.afterCommit(() -> {
+            copy.forEach(r -> usersByRole.get(r).incrementAndGet());
+            signupsByDay.computeIfAbsent(today, d -> new AtomicLong()).incrementAndGet();
+            signupsByDay.keySet().removeIf(day -> day.isBefore(windowStart()));
+        });
+    }
+
+    @Override
+    public void onUserDeleted(Set<RoleType> roles) {
+        Set<RoleType> copy = Set.copyOf(roles);
+        TransactionHooks.afterCommit(() -> copy.forEach(r -> usersByRole.get(r).decrementAndGet()));
+    }
+
+    @Override
+    public void onUserRolesChanged(Set<RoleType> before, Set<RoleType> after) {
+        Set<RoleType> added = new HashSet<>(after);
+        added.removeAll(before);
+        Set<RoleType> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        if (added.isEmpty() && removed.isEmpty()) return;
+        TransactionHooks.afterCommit(() -> {
+            added.forEach(r -> usersByRole.get(r).incrementAndGet());
+            removed.forEach(r -> usersByRole.get(r).decrementAndGet());
+        });
+    }
+
+    @Override
+    public void onRoleMembersChanged(RoleType role, long delta) {
+        if (delta == 0) return;
+        TransactionHooks.afterCommit(() -> usersByRole.get(role).addAndGet(delta));
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now(clock).minusDays(SIGNUP_WINDOW_DAYS - 1L);
+    }
+
+    private static <E extends Enum<E>> Map<E, AtomicLong> newCounters(Class<E> type) {
+        Map<E, AtomicLong> m = new EnumMap<>(type);
+        for (E e : type.getEnumConstants()) m.put(e, new AtomicLong());
+        return m;
+    }
+}
@@ -3,28 +3,97 @@ package com.example.qtifood.services.impl;
 import com.example.qtifood.dtos.Categories.CreateCategoriesDto;
 import com.example.qtifood.dtos.Categories.UpdateCategoriesDto;
 import com.example.qtifood.dtos.Categories.CategoryResponseDto;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.ImportReportDto.RowError;
+import com.example.qtifood.dtos.common.PrecomputedJson;
 import com.example.qtifood.entities.Categories;
 import com.example.qtifood.repositories.CategoriesRepository;
+import com.example.qtifood.repositories.ProjectionRepository;
+import com.example.qtifood.repositories.TableStatsRepository;
 import com.example.qtifood.services.CategoriesService;
+import com.example.qtifood.services.index.CategorySnapshot;
+import com.example.qtifood.services.limit.NoConcurrencyLimit;
+import com.example.qtifood.utils.TransactionHooks;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CategoriesServiceImpl implements CategoriesService {
 
+    // field của CategoryResponseDto → thuộc tính entity, dùng cho ?fields=
+    static final Map<String, String> FIELD_PATHS = Map.of(
+            "id", "id",
+            "name", "name",
+            "description", "description",
+            "imageUrl", "imageUrl",
+            "isActive", "isActive",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt");
+
     private final CategoriesRepository categoriesRepository;
+    private final TableStatsRepository tableStatsRepository;
+    private final ProjectionRepository projectionRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CategorySnapshot categorySnapshot;
 
     @Override
     public CategoryResponseDto createCategories(CreateCategoriesDto dto) {
-        Categories category = Categories.builder()
+        CategoryResponseDto created = toDto(categoriesRepository.save(newCategory(dto)));
+        TransactionHooks.afterCommit(() -> categorySnapshot.put(created));
+        return created;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @NoConcurrencyLimit
+    public ImportReportDto importCategories(InputStream csv) {
+        try {
+            return importCsv(csv);
+        } finally {
+            // các chunk đã commit riêng lẻ → nạp lại cả snapshot, kể cả khi import dừng giữa chừng
+            categorySnapshot.load();
+        }
+    }
+
+    private ImportReportDto importCsv(InputStream csv) {
+        return CsvImport.run(csv, CategoriesServiceImpl::parseCsvRow, validator,
+                chunk -> transactionTemplate.execute(tx -> {
+                    categoriesRepository.saveAllAndFlush(chunk.stream().map(r -> newCategory(r.dto())).toList());
+                    entityManager.clear();
+                    return List.<RowError>of();
+                }));
+    }
+
+    private static CreateCategoriesDto parseCsvRow(Map<String, String> r) {
+        return new CreateCategoriesDto(
+                r.get("name"),
+                r.get("description"),
+                r.get("imageUrl"),
+                r.get("isActive") == null ? null : Boolean.valueOf(r.get("isActive")));
+    }
+
+    private static Categories newCategory(CreateCategoriesDto dto) {
+        return Categories.builder()
                 .name(dto.name())
                 .description(dto.description())
                 .imageUrl(dto.imageUrl())
@@ -32,16 +101,36 @@ public class CategoriesServiceImpl implements CategoriesService {
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
-        return toDto(categoriesRepository.save(category));
+    }
+
+    // đọc từ snapshot: không mở transaction, không truy vấn DB; approximateTotal là số chính xác
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPage<CategoryResponseDto> getAllCategories(CursorRequest page) {
+        return categorySnapshot.page(page);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Timed("qtifood.service")
+    public PrecomputedJson getAllCategoriesJson(CursorRequest page) {
+        return categorySnapshot.pageJson(page);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CategoryResponseDto> getAllCategories() {
-        return categoriesRepository.findAll()
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public CursorPage<Map<String, Object>> getAllCategoryFields(String fields, CursorRequest page) {
+        FieldSelection fs = FieldSelection.parse(fields, FIELD_PATHS);
+        Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("categories") : null;
+        return CursorPage.of(projectionRepository.seek(Categories.class, fs, Map.of(), page.afterId(), page.size() + 1),
+                page, FieldSelection::idOf, Function.identity(), total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCategoryFieldsById(Long id, String fields) {
+        return projectionRepository.findById(Categories.class, FieldSelection.parse(fields, FIELD_PATHS), id)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + id));
     }
 
     @Override
@@ -63,7 +152,9 @@ public class CategoriesServiceImpl implements CategoriesService {
         if (dto.isActive() != null)    category.setIsActive(dto.isActive());
         category.setUpdatedAt(LocalDateTime.now());
 
-        return toDto(categoriesRepository.save(category));
+        CategoryResponseDto updated = toDto(categoriesRepository.save(category));
+        TransactionHooks.afterCommit(() -> categorySnapshot.put(updated));
+        return updated;
     }
 
     @Override
@@ -72,6 +163,7 @@ public class CategoriesServiceImpl implements CategoriesService {
             throw new IllegalArgumentException("Category not found: " + id);
         }
         categoriesRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> categorySnapshot.remove(id));
     }
 
     private CategoryResponseDto toDto(Categories c) {
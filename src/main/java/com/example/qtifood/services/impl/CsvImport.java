@@ -0,0 +1,157 @@
+package com.example.qtifood.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.ImportReportDto.RowError;
+import com.example.qtifood.utils.CsvReader;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Khung import CSV dùng chung: đọc từng dòng, map header → DTO, validate theo constraint của DTO,
+ * gom thành chunk rồi giao cho {@link ChunkWriter} (mỗi chunk một transaction do service quản lý).
+ * Chunk bị DB từ chối (trùng unique, sai FK, giá trị quá dài...) được ghi lại từng dòng để chỉ báo lỗi
+ * đúng dòng hỏng; CSV sai định dạng dừng việc đọc và trả về báo cáo đến dòng đó.
+ */
+final class CsvImport {
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    record Row<D>(long line, D dto) {}
+
+    @FunctionalInterface
+    interface ChunkWriter<D> {
+        // ghi chunk, trả về lỗi của các dòng không ghi được (ví dụ owner không tồn tại);
+        // DataIntegrityViolationException = cả chunk đã rollback
+        List<RowError> write(List<Row<D>> chunk);
+    }
+
+    private CsvImport() {}
+
+    static <D> ImportReportDto run(InputStream body, Function<Map<String, String>, D> parser,
+                                   Validator validator, ChunkWriter<D> writer) {
+        long total = 0, imported = 0, failed = 0;
+        List<RowError> errors = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header;
+            try {
+                header = csv.next();
+            } catch (CsvReader.MalformedCsvException e) {
+                return new ImportReportDto(0, 0, 0, List.of(new RowError(1, e.getMessage())));
+            }
+            if (header == null) return new ImportReportDto(0, 0, 0, List.of());
+            header = header.stream().map(String::trim).toList();
+
+            List<Row<D>> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (true) {
+                List<String> values;
+                try {
+                    values = csv.next();
+                } catch (CsvReader.MalformedCsvException e) {
+                    // phần còn lại của file không tách được thành dòng: tính là một dòng lỗi
+                    total++;
+                    failed++;
+                    addError(errors, new RowError(csv.getLine(), e.getMessage()));
+                    break;
+                }
+                if (values == null) break;
+                total++;
+                long line = csv.getLine();
+                String error = null;
+                D dto = null;
+                if (values.size() != header.size()) {
+                    error = "Expected " + header.size() + " columns but got " + values.size();
+                } else {
+                    Map<String, String> record = new HashMap<>();
+                    for (int i = 0; i < header.size(); i++) {
+                        String v = values.get(i).trim();
+                        record.put(header.get(i), v.isEmpty() ? null : v);
+                    }
+                    try {
+                        dto = parser.apply(record);
+                        error = violations(validator.validate(dto));
+                    } catch (RuntimeException e) {
+                        error = e.getMessage();
+                    }
+                }
+
+                if (error != null) {
+                    failed++;
+                    addError(errors, new RowError(line, error));
+                    continue;
+                }
+                chunk.add(new Row<>(line, dto));
+                if (chunk.size() == CHUNK_SIZE) {
+                    List<RowError> chunkErrors = write(writer, chunk);
+                    imported += chunk.size() - chunkErrors.size();
+                    failed += chunkErrors.size();
+                    chunkErrors.forEach(e -> addError(errors, e));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<RowError> chunkErrors = write(writer, chunk);
+                imported += chunk.size() - chunkErrors.size();
+                failed += chunkErrors.size();
+                chunkErrors.forEach(e -> addError(errors, e));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ImportReportDto(total, imported, failed, errors);
+    }
+
+    // chunk bị từ chối → ghi lại từng dòng (mỗi dòng một transaction) để tìm đúng dòng hỏng
+    static <D> List<RowError> write(ChunkWriter<D> writer, List<Row<D>> chunk) {
+        try {
+            return writer.write(chunk);
+        } catch (DataIntegrityViolationException e) {
+            if (chunk.size() == 1) return List.of(rejected(chunk.get(0).line(), e));
+        }
+        List<RowError> errors = new ArrayList<>();
+        for (Row<D> row : chunk) {
+            try {
+                errors.addAll(writer.write(List.of(row)));
+            } catch (DataIntegrityViolationException e) {
+                errors.add(rejected(row.line(), e));
+            }
+        }
+        return errors;
+    }
+
+    // chỉ dòng đầu của lỗi: phần Detail của PostgreSQL chép lại cả dòng bị từ chối (kể cả hash mật khẩu)
+    static RowError rejected(long line, DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        int eol = message.indexOf('\n');
+        return new RowError(line, "Rejected by database: " + (eol < 0 ? message : message.substring(0, eol)));
+    }
+
+    static void addError(List<RowError> errors, RowError e) {
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add(e);
+    }
+
+    static <D> String violations(Set<ConstraintViolation<D>> vs) {
+        if (vs.isEmpty()) return null;
+        List<String> parts = new ArrayList<>();
+        for (ConstraintViolation<D> v : vs) {
+            parts.add(v.getPropertyPath() + " " + v.getMessage());
+        }
+        parts.sort(null);
+        return String.join("; ", parts);
+    }
+}
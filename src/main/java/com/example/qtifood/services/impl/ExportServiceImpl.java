@@ -0,0 +1,104 @@
+package com.example.qtifood.services.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qtifood.entities.Address;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.entities.User;
+import com.example.qtifood.mappers.AddressMapper;
+import com.example.qtifood.mappers.StoreMapper;
+import com.example.qtifood.mappers.UserMapper;
+import com.example.qtifood.repositories.AddressRepository;
+import com.example.qtifood.repositories.StoreRepository;
+import com.example.qtifood.repositories.UserRepository;
+import com.example.qtifood.services.ExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Export NDJSON: mỗi khối {@value #CHUNK_SIZE} dòng (keyset theo id) được đọc và map sang DTO trong một
+ * transaction read-only riêng, rồi mới ghi ra stream. Connection trả về pool trước khi ghi nên client tải chậm
+ * không giữ connection; persistence context đóng theo transaction nên bộ nhớ không tăng theo số dòng của bảng.
+ * Roles của user được nạp một lần cho cả khối.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final StoreRepository storeRepository;
+    private final UserRepository userRepository;
+    private final AddressRepository addressRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void exportStores(OutputStream out) throws IOException {
+        writeNdjson(afterId -> storeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(CHUNK_SIZE)),
+                Store::getId, chunk -> StoreMapper::toDto, out);
+    }
+
+    @Override
+    public void exportUsers(OutputStream out) throws IOException {
+        writeNdjson(afterId -> userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(CHUNK_SIZE)),
+                User::getId, chunk -> {
+                    Map<Long, Set<RoleType>> roles = userRepository.findRoleTypesByUserIds(
+                            chunk.stream().map(User::getId).toList());
+                    return u -> UserMapper.toDto(u, roles.getOrDefault(u.getId(), EnumSet.noneOf(RoleType.class)));
+                }, out);
+    }
+
+    @Override
+    public void exportAddresses(OutputStream out) throws IOException {
+        writeNdjson(afterId -> addressRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(CHUNK_SIZE)),
+                Address::getId, chunk -> AddressMapper::toDto, out);
+    }
+
+    // mapperFor nhận cả khối để nạp trước dữ liệu phụ (roles) bằng một truy vấn
+    private <E, T> void writeNdjson(LongFunction<List<E>> chunkAfter, ToLongFunction<E> idOf,
+                                    Function<List<E>, Function<E, T>> mapperFor, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long[] afterId = {0};
+            int read;
+            do {
+                List<T> dtos = new ArrayList<>(CHUNK_SIZE);
+                read = readOnly.execute(tx -> {
+                    List<E> chunk = chunkAfter.apply(afterId[0]);
+                    if (chunk.isEmpty()) return 0;
+                    chunk.stream().map(mapperFor.apply(chunk)).forEach(dtos::add);
+                    afterId[0] = idOf.applyAsLong(chunk.get(chunk.size() - 1));
+                    return chunk.size();
+                });
+                for (T dto : dtos) {
+                    writer.writeValue(gen, dto);
+                    gen.writeRaw('\n');
+                }
+                gen.flush();
+            } while (read == CHUNK_SIZE);
+        }
+    }
+}
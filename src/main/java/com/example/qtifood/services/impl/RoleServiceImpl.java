@@ -5,6 +5,8 @@ import com.example.qtifood.entities.Role;
 import com.example.qtifood.entities.RoleType;
 import com.example.qtifood.repositories.RoleRepository;
 import com.example.qtifood.services.RoleService;
+import com.example.qtifood.services.index.RoleRegistry;
+import com.example.qtifood.utils.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +17,7 @@ import java.util.List;
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
     @Override
     public Role createRole(RoleType name, String description) {
@@ -22,17 +25,18 @@ public class RoleServiceImpl implements RoleService {
                 .name(name)
                 .description(description)
                 .build();
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        TransactionHooks.afterCommit(() -> roleRegistry.put(saved));
+        return saved;
     }
 
     @Override
     public List<Role> getAllRoles() {
-        return roleRepository.findAll();
+        return roleRegistry.all();
     }
 
     @Override
     public Role getRoleByName(RoleType name) {
-        return roleRepository.findByName(name)
-                .orElseThrow(() -> new IllegalArgumentException("Role not found: " + name));
+        return roleRegistry.get(name);
     }
 }
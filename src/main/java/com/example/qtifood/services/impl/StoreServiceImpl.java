@@ -1,19 +1,51 @@
 package com.example.qtifood.services.impl;
 
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.qtifood.dtos.Stores.*;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.ImportReportDto.RowError;
+import com.example.qtifood.entities.GeoPoint;
 import com.example.qtifood.entities.Store;
 import com.example.qtifood.entities.User;
 import com.example.qtifood.entities.StoreStatus;
 import com.example.qtifood.mappers.StoreMapper;
+import com.example.qtifood.repositories.ProjectionRepository;
 import com.example.qtifood.repositories.StoreRepository;
+import com.example.qtifood.repositories.TableStatsRepository;
 import com.example.qtifood.repositories.UserRepository;
+import com.example.qtifood.services.AdminStatsService;
 import com.example.qtifood.services.StoreService;
+import com.example.qtifood.services.index.StoreIndexes;
+import com.example.qtifood.services.index.StoreOpeningHoursIndex;
+import com.example.qtifood.services.index.StoreSearchIndex;
+import com.example.qtifood.services.index.StoreSpatialIndex;
+import com.example.qtifood.services.limit.NoConcurrencyLimit;
+import com.example.qtifood.utils.ETags;
+import com.example.qtifood.utils.TransactionHooks;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -21,21 +53,95 @@ import lombok.RequiredArgsConstructor;
 @Transactional
 public class StoreServiceImpl implements StoreService {
 
+    static final double MAX_NEARBY_RADIUS_KM = 50;
+    static final int MAX_NEARBY_LIMIT = 100;
+    static final int MAX_SEARCH_LIMIT = 100;
+    // lọc giờ mở cửa theo lô: mỗi request quét tối đa 5 × 200 dòng
+    static final int FILTER_BATCH_SIZE = 200;
+    static final int MAX_FILTER_BATCHES = 5;
+
     private final StoreRepository storeRepository;
     private final UserRepository userRepository;
+    private final TableStatsRepository tableStatsRepository;
+    private final ProjectionRepository projectionRepository;
+    private final AdminStatsService adminStatsService;
+    private final StoreSpatialIndex spatialIndex;
+    private final StoreSearchIndex searchIndex;
+    private final StoreOpeningHoursIndex openingHoursIndex;
+    private final StoreIndexes storeIndexes;
+    private final Clock clock;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
     @Override
     public StoreResponseDto createStore(CreateStoreDto dto) {
         User owner = userRepository.findById(dto.getOwnerId())
             .orElseThrow(() -> new RuntimeException("Owner not found: " + dto.getOwnerId()));
 
-        Store s = Store.builder()
+        Store saved = storeRepository.save(newStore(dto, owner));
+        reindexAfterCommit(saved);
+        adminStatsService.onStoreCreated(saved.getStatus());
+        return StoreMapper.toDto(saved);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @NoConcurrencyLimit
+    public ImportReportDto importStores(InputStream csv) {
+        return CsvImport.run(csv, StoreServiceImpl::parseCsvRow, validator,
+            chunk -> transactionTemplate.execute(tx -> writeImportChunk(chunk)));
+    }
+
+    // Một chunk = một transaction; owner được kiểm tra bằng 1 truy vấn IN cho cả chunk
+    private List<RowError> writeImportChunk(List<CsvImport.Row<CreateStoreDto>> chunk) {
+        Set<Long> ownerIds = chunk.stream().map(r -> r.dto().getOwnerId()).collect(Collectors.toSet());
+        Set<Long> existingOwners = userRepository.findExistingIds(ownerIds);
+
+        List<RowError> errors = new ArrayList<>();
+        List<Store> stores = new ArrayList<>(chunk.size());
+        for (CsvImport.Row<CreateStoreDto> row : chunk) {
+            Long ownerId = row.dto().getOwnerId();
+            if (!existingOwners.contains(ownerId)) {
+                errors.add(new RowError(row.line(), "Owner not found: " + ownerId));
+                continue;
+            }
+            stores.add(newStore(row.dto(), userRepository.getReferenceById(ownerId)));
+        }
+
+        // flush qua repository để lỗi DB được dịch thành DataIntegrityViolationException (CsvImport.write)
+        storeRepository.saveAllAndFlush(stores);
+        entityManager.clear();
+        for (Store s : stores) {
+            reindexAfterCommit(s);
+            adminStatsService.onStoreCreated(s.getStatus());
+        }
+        return errors;
+    }
+
+    private static CreateStoreDto parseCsvRow(Map<String, String> r) {
+        CreateStoreDto dto = new CreateStoreDto();
+        dto.setOwnerId(r.get("ownerId") == null ? null : Long.valueOf(r.get("ownerId")));
+        dto.setName(r.get("name"));
+        dto.setAddress(r.get("address"));
+        dto.setDescription(r.get("description"));
+        dto.setLatitude(r.get("latitude") == null ? null : Double.valueOf(r.get("latitude")));
+        dto.setLongitude(r.get("longitude") == null ? null : Double.valueOf(r.get("longitude")));
+        dto.setPhone(r.get("phone"));
+        dto.setEmail(r.get("email"));
+        dto.setImageUrl(r.get("imageUrl"));
+        dto.setOpenTime(r.get("openTime") == null ? null : LocalTime.parse(r.get("openTime")));
+        dto.setCloseTime(r.get("closeTime") == null ? null : LocalTime.parse(r.get("closeTime")));
+        return dto;
+    }
+
+    private static Store newStore(CreateStoreDto dto, User owner) {
+        return Store.builder()
             .owner(owner)
             .name(dto.getName())
             .description(dto.getDescription())
             .address(dto.getAddress())
-            .latitude(StoreMapper.toBD(dto.getLatitude()))
-            .longitude(StoreMapper.toBD(dto.getLongitude()))
+            .location(GeoPoint.ofDegrees(dto.getLatitude(), dto.getLongitude()))
             .phone(dto.getPhone())
             .email(dto.getEmail())
             .imageUrl(dto.getImageUrl())
@@ -43,20 +149,19 @@ public class StoreServiceImpl implements StoreService {
             .closeTime(dto.getCloseTime())
             .status(StoreStatus.PENDING)
             .build();
-
-        return StoreMapper.toDto(storeRepository.save(s));
     }
 
     @Override
-    public StoreResponseDto updateStore(Long id, UpdateStoreDto dto) {
+    public StoreResponseDto updateStore(Long id, UpdateStoreDto dto, String ifMatch) {
+        checkIfMatch(id, ifMatch);
         Store s = storeRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Store not found: " + id));
+        StoreStatus oldStatus = s.getStatus();
 
         if (dto.getName() != null)        s.setName(dto.getName());
         if (dto.getDescription() != null) s.setDescription(dto.getDescription());
         if (dto.getAddress() != null)     s.setAddress(dto.getAddress());
-        if (dto.getLatitude() != null)    s.setLatitude(StoreMapper.toBD(dto.getLatitude()));
-        if (dto.getLongitude() != null)   s.setLongitude(StoreMapper.toBD(dto.getLongitude()));
+        s.mergeLocation(dto.getLatitude(), dto.getLongitude());
         if (dto.getPhone() != null)       s.setPhone(dto.getPhone());
         if (dto.getEmail() != null)       s.setEmail(dto.getEmail());
         if (dto.getImageUrl() != null)    s.setImageUrl(dto.getImageUrl());
@@ -64,42 +169,204 @@ public class StoreServiceImpl implements StoreService {
         if (dto.getCloseTime() != null)   s.setCloseTime(dto.getCloseTime());
         if (dto.getStatus() != null)      s.setStatus(dto.getStatus());
 
-        return StoreMapper.toDto(storeRepository.save(s));
+        Store saved = storeRepository.saveAndFlush(s);
+        reindexAfterCommit(saved);
+        adminStatsService.onStoreStatusChanged(oldStatus, saved.getStatus());
+        return StoreMapper.toDto(saved);
+    }
+
+    // chiếm dòng bằng compare-and-set trên updated_at; phải chạy trước khi nạp entity (query clear persistence context)
+    private void checkIfMatch(Long id, String ifMatch) {
+        LocalDateTime expected = ETags.expectedUpdatedAt(ifMatch, id);
+        if (expected == null || storeRepository.touchIfUnmodified(id, expected, ETags.now()) == 1) return;
+        if (!storeRepository.existsById(id)) throw new RuntimeException("Store not found: " + id);
+        throw ETags.preconditionFailed(id);
     }
 
     @Override
     public void deleteStore(Long id) {
-        if (!storeRepository.existsById(id)) {
-            throw new RuntimeException("Store not found: " + id);
+        Store s = storeRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Store not found: " + id));
+        storeRepository.delete(s);
+        adminStatsService.onStoreDeleted(s.getStatus());
+        TransactionHooks.afterCommit(() -> storeIndexes.remove(id));
+    }
+
+    @Override @Transactional(readOnly = true)
+    public StoreResponseDto getStoreById(Long id) {
+        return StoreMapper.toDto(storeRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Store not found: " + id)));
+    }
+
+    @Override @Transactional(readOnly = true)
+    public Map<String, Object> getStoreFieldsById(Long id, String fields) {
+        return projectionRepository.findById(Store.class, FieldSelection.parse(fields, StoreMapper.FIELD_PATHS), id)
+            .orElseThrow(() -> new RuntimeException("Store not found: " + id));
+    }
+
+    @Override @Transactional(readOnly = true)
+    public String getStoreETag(Long id, String fields) {
+        return ETags.of(id, storeRepository.findUpdatedAtById(id)
+            .orElseThrow(() -> new RuntimeException("Store not found: " + id)), fields);
+    }
+
+    @Override @Transactional(readOnly = true)
+    @Timed("qtifood.service")
+    public CursorPage<StoreResponseDto> getAllStores(CursorRequest page, LocalTime openAt, boolean openNow) {
+        LocalTime at = resolveOpenAt(openAt, openNow);
+        if (at == null) {
+            Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("stores") : null;
+            return CursorPage.of(storeRepository.findByIdGreaterThanOrderByIdAsc(page.afterId(), page.fetchLimit()),
+                page, Store::getId, StoreMapper::toDto, total);
         }
-        storeRepository.deleteById(id);
+
+        List<Long> pageIds = openingHoursIndex.openAfter(at, page.afterId(), page.size() + 1);
+        Map<Long, Store> stores = findAllByIdAsMap(pageIds);
+        List<Store> rows = pageIds.stream().filter(stores::containsKey).map(stores::get).toList();
+        return CursorPage.of(rows, page, Store::getId, StoreMapper::toDto,
+            page.withTotal() ? (long) openingHoursIndex.countOpenAt(at) : null);
     }
 
     @Override @Transactional(readOnly = true)
-    public List<StoreResponseDto> getAllStores() {
-        return storeRepository.findAll().stream().map(StoreMapper::toDto).toList();
+    public CursorPage<StoreResponseDto> getStoresByOwner(Long ownerId, CursorRequest page,
+                                                         LocalTime openAt, boolean openNow) {
+        return seekFiltered(page, resolveOpenAt(openAt, openNow),
+            (afterId, limit) -> storeRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(ownerId, afterId, Limit.of(limit)),
+            Store::getId, StoreMapper::toDto);
+    }
+
+    @Override @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getAllStoreFields(String fields, CursorRequest page,
+                                                             LocalTime openAt, boolean openNow) {
+        FieldSelection fs = FieldSelection.parse(fields, StoreMapper.FIELD_PATHS);
+        LocalTime at = resolveOpenAt(openAt, openNow);
+        if (at == null) {
+            Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("stores") : null;
+            return CursorPage.of(projectionRepository.seek(Store.class, fs, Map.of(), page.afterId(), page.size() + 1),
+                page, FieldSelection::idOf, Function.identity(), total);
+        }
+        List<Long> pageIds = openingHoursIndex.openAfter(at, page.afterId(), page.size() + 1);
+        List<Map<String, Object>> rows = pageIds.isEmpty() ? List.of()
+            : projectionRepository.seek(Store.class, fs, Map.of("id", pageIds), 0L, 0);
+        return CursorPage.of(rows, page, FieldSelection::idOf, Function.identity(),
+            page.withTotal() ? (long) openingHoursIndex.countOpenAt(at) : null);
     }
 
     @Override @Transactional(readOnly = true)
-    public List<StoreResponseDto> getStoresByOwner(Long ownerId) {
-        return storeRepository.findByOwnerId(ownerId).stream().map(StoreMapper::toDto).toList();
+    public CursorPage<Map<String, Object>> getStoreFieldsByOwner(Long ownerId, String fields, CursorRequest page,
+                                                                 LocalTime openAt, boolean openNow) {
+        FieldSelection fs = FieldSelection.parse(fields, StoreMapper.FIELD_PATHS);
+        return seekFiltered(page, resolveOpenAt(openAt, openNow),
+            (afterId, limit) -> projectionRepository.seek(Store.class, fs, Map.of("owner.id", ownerId), afterId, limit),
+            FieldSelection::idOf, Function.identity());
     }
 
     @Override @Transactional(readOnly = true)
-    public List<StoreResponseDto> searchByName(String q) {
-        return storeRepository.findByNameContainingIgnoreCase(q).stream().map(StoreMapper::toDto).toList();
+    public CursorPage<Map<String, Object>> getStoreFieldsByStatus(StoreStatus status, String fields, CursorRequest page,
+                                                                  LocalTime openAt, boolean openNow) {
+        FieldSelection fs = FieldSelection.parse(fields, StoreMapper.FIELD_PATHS);
+        return seekFiltered(page, resolveOpenAt(openAt, openNow),
+            (afterId, limit) -> projectionRepository.seek(Store.class, fs, Map.of("status", status), afterId, limit),
+            FieldSelection::idOf, Function.identity());
     }
 
     @Override @Transactional(readOnly = true)
-    public List<StoreResponseDto> getStoresByStatus(StoreStatus status) {
-        return storeRepository.findByStatus(status).stream().map(StoreMapper::toDto).toList();
+    @Timed("qtifood.service")
+    public List<StoreResponseDto> searchByName(String q, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        List<Long> ids = searchIndex.search(q, cappedLimit).stream().map(StoreSearchIndex.Hit::id).toList();
+        Map<Long, Store> stores = findAllByIdAsMap(ids);
+        // giữ thứ tự xếp hạng của index
+        return ids.stream().filter(stores::containsKey).map(id -> StoreMapper.toDto(stores.get(id))).toList();
+    }
+
+    @Override @Transactional(readOnly = true)
+    public CursorPage<StoreResponseDto> getStoresByStatus(StoreStatus status, CursorRequest page,
+                                                          LocalTime openAt, boolean openNow) {
+        return seekFiltered(page, resolveOpenAt(openAt, openNow),
+            (afterId, limit) -> storeRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, afterId, Limit.of(limit)),
+            Store::getId, StoreMapper::toDto);
     }
 
     @Override
-    public StoreResponseDto setStatus(Long id, StoreStatus status) {
+    public StoreResponseDto setStatus(Long id, StoreStatus status, String ifMatch) {
+        checkIfMatch(id, ifMatch);
         Store s = storeRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Store not found: " + id));
+        StoreStatus oldStatus = s.getStatus();
         s.setStatus(status);
-        return StoreMapper.toDto(storeRepository.save(s));
+        Store saved = storeRepository.saveAndFlush(s);
+        reindexAfterCommit(saved);
+        adminStatsService.onStoreStatusChanged(oldStatus, status);
+        return StoreMapper.toDto(saved);
+    }
+
+    @Override @Transactional(readOnly = true)
+    @Timed("qtifood.service")
+    public List<NearbyStoreResponseDto> getNearbyStores(double lat, double lng, double radiusKm,
+                                                        int limit, StoreStatus status) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: " + lat + "," + lng);
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("radiusKm must be in (0, " + MAX_NEARBY_RADIUS_KM + "]");
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_NEARBY_LIMIT));
+
+        List<StoreSpatialIndex.Hit> hits = spatialIndex.nearby(lat, lng, radiusKm, cappedLimit, status);
+        if (hits.isEmpty()) return List.of();
+
+        Map<Long, Store> stores = findAllByIdAsMap(hits.stream().map(StoreSpatialIndex.Hit::id).toList());
+
+        // giữ thứ tự theo khoảng cách; bỏ qua store đã bị xoá nhưng index chưa kịp cập nhật
+        return hits.stream()
+            .filter(h -> stores.containsKey(h.id()))
+            .map(h -> NearbyStoreResponseDto.builder()
+                .store(StoreMapper.toDto(stores.get(h.id())))
+                .distanceKm(h.distanceKm())
+                .build())
+            .toList();
+    }
+
+    /**
+     * Seek theo id qua {@code fetch(afterId, limit)}; nếu có lọc giờ mở cửa thì đọc tiếp các lô sau
+     * cho đến khi đủ một trang, hết dữ liệu, hoặc đã đọc {@link #MAX_FILTER_BATCHES} lô. Trường hợp cuối
+     * trả về trang thiếu (có thể rỗng) với cursor là dòng cuối đã quét, client đọc tiếp như trang thường.
+     */
+    private <T, R> CursorPage<R> seekFiltered(CursorRequest page, LocalTime at,
+                                              BiFunction<Long, Integer, List<T>> fetch,
+                                              Function<T, Long> idOf, Function<T, R> mapper) {
+        int fetchSize = page.size() + 1;
+        if (at == null) {
+            return CursorPage.of(fetch.apply(page.afterId(), fetchSize), page, idOf, mapper, null);
+        }
+        List<T> rows = new ArrayList<>();
+        long afterId = page.afterId();
+        for (int i = 0; i < MAX_FILTER_BATCHES; i++) {
+            List<T> batch = fetch.apply(afterId, FILTER_BATCH_SIZE);
+            for (T row : batch) {
+                if (!openingHoursIndex.isOpen(idOf.apply(row), at)) continue;
+                rows.add(row);
+                if (rows.size() == fetchSize) return CursorPage.of(rows, page, idOf, mapper, null);
+            }
+            if (batch.size() < FILTER_BATCH_SIZE) return CursorPage.of(rows, page, idOf, mapper, null);
+            afterId = idOf.apply(batch.get(batch.size() - 1));
+        }
+        return new CursorPage<>(rows.stream().map(mapper).toList(), CursorRequest.encode(afterId), null);
+    }
+
+    private LocalTime resolveOpenAt(LocalTime openAt, boolean openNow) {
+        return openNow ? LocalTime.now(clock) : openAt;
+    }
+
+    private Map<Long, Store> findAllByIdAsMap(List<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+        return storeRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Store::getId, Function.identity()));
+    }
+
+    // cập nhật các index trong bộ nhớ chỉ khi transaction đã commit thành công
+    private void reindexAfterCommit(Store saved) {
+        TransactionHooks.afterCommit(() -> storeIndexes.upsert(saved));
     }
 }
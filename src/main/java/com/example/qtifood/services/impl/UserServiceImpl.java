@@ -1,142 +1,418 @@
 // src/main/java/com/example/qtifood/services/impl/UserServiceImpl.java
 package com.example.qtifood.services.impl;
 
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.FieldSelection;
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.ImportReportDto.RowError;
 import com.example.qtifood.dtos.user.*;
 import com.example.qtifood.entities.*;
-import com.example.qtifood.repositories.RoleRepository;
+import com.example.qtifood.mappers.UserMapper;
+import com.example.qtifood.repositories.ProjectionRepository;
+import com.example.qtifood.repositories.TableStatsRepository;
 import com.example.qtifood.repositories.UserRepository;
+import com.example.qtifood.security.PasswordHasher;
+import com.example.qtifood.services.AdminStatsService;
+import com.example.qtifood.services.index.EmailBloomFilter;
+import com.example.qtifood.services.index.RoleRegistry;
 import com.example.qtifood.services.UserService;
+import com.example.qtifood.services.limit.NoConcurrencyLimit;
+import com.example.qtifood.utils.ETags;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserServiceImpl implements UserService {
 
-    private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private static final int ROLE_CHANGE_BATCH = 1000;
 
-    private UserResponseDto toDto(User u) {
-        Set<RoleType> roleNames = u.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
-        return new UserResponseDto(
-                u.getId(), u.getFullName(), u.getEmail(), u.getPhone(),
-                u.getAvatarUrl(), u.getDateOfBirth(), u.getGender(),
-                u.getIsActive(), u.getCreatedAt(), u.getUpdatedAt(),
-                roleNames
-        );
-    }
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final EmailBloomFilter emailBloomFilter;
+    private final TableStatsRepository tableStatsRepository;
+    private final ProjectionRepository projectionRepository;
+    private final AdminStatsService adminStatsService;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @Override @Transactional(readOnly = true)
-    public Page<UserResponseDto> getUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(this::toDto);
+    @Timed("qtifood.service")
+    public CursorPage<UserResponseDto> getUsers(CursorRequest page) {
+        Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("users") : null;
+        // 2 bước: trang user (không join roles) rồi roles của cả trang trong 1 truy vấn, tránh N+1
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(page.afterId(), page.fetchLimit());
+        Map<Long, Set<RoleType>> roles = userRepository.findRoleTypesByUserIds(rows.stream().map(User::getId).toList());
+        return CursorPage.of(rows, page, User::getId,
+                u -> UserMapper.toDto(u, roles.getOrDefault(u.getId(), EnumSet.noneOf(RoleType.class))), total);
     }
 
     @Override @Transactional(readOnly = true)
+    @Timed("qtifood.service")
     public UserResponseDto getUser(Long id) {
         User u = userRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + id));
-        return toDto(u);
+        return UserMapper.toDto(u);
+    }
+
+    @Override @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getUserFields(String fields, CursorRequest page) {
+        FieldSelection fs = FieldSelection.parse(fields, UserMapper.FIELD_PATHS, UserMapper.EXTRA_FIELDS);
+        Long total = page.withTotal() ? tableStatsRepository.estimateRowCount("users") : null;
+        List<Map<String, Object>> rows = projectionRepository.seek(User.class, fs, Map.of(), page.afterId(), page.size() + 1);
+        attachRoles(fs, rows);
+        return CursorPage.of(rows, page, FieldSelection::idOf, Function.identity(), total);
+    }
+
+    @Override @Transactional(readOnly = true)
+    public Map<String, Object> getUserFieldsById(Long id, String fields) {
+        FieldSelection fs = FieldSelection.parse(fields, UserMapper.FIELD_PATHS, UserMapper.EXTRA_FIELDS);
+        Map<String, Object> row = projectionRepository.findById(User.class, fs, id)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + id));
+        attachRoles(fs, List.of(row));
+        return row;
+    }
+
+    @Override @Transactional(readOnly = true)
+    public String getUserETag(Long id, String fields) {
+        return ETags.of(id, userRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + id)), fields);
+    }
+
+    // nạp roles cho cả trang bằng 1 truy vấn thay vì từng user
+    private void attachRoles(FieldSelection fs, List<Map<String, Object>> rows) {
+        if (!fs.extras().contains("roles") || rows.isEmpty()) return;
+        Map<Long, Set<RoleType>> byUser = userRepository.findRoleTypesByUserIds(
+                rows.stream().map(FieldSelection::idOf).toList());
+        for (Map<String, Object> row : rows) {
+            row.put("roles", byUser.getOrDefault(FieldSelection.idOf(row), Set.of()));
+        }
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Timed("qtifood.service")
     public UserResponseDto createUser(CreateUserRequestDto dto) {
-        if (dto.email() != null && userRepository.existsByEmail(dto.email())) {
+        // email trùng bị từ chối trước khi tốn công băm mật khẩu (email mới thường chỉ qua Bloom filter, không hỏi DB)
+        if (emailTaken(dto.email(), 0L)) {
             throw new IllegalArgumentException("Email already exists");
         }
+        // băm mật khẩu trước khi mở transaction → connection chỉ bị giữ cho phần INSERT
+        String passwordHash = passwordHasher.hash(dto.password());
+        try {
+            return transactionTemplate.execute(tx -> insertUser(dto, passwordHash));
+        } catch (DataIntegrityViolationException e) {
+            // đăng ký song song cùng email lọt qua bước kiểm tra trên: unique index trên email chặn lại
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            if (cause.contains("email")) throw new IllegalArgumentException("Email already exists", e);
+            throw e;
+        }
+    }
+
+    private UserResponseDto insertUser(CreateUserRequestDto dto, String passwordHash) {
 
         // Lấy danh sách roles từ request, nếu trống → mặc định CUSTOMER
         Set<RoleType> requested = (dto.roles() == null || dto.roles().isEmpty())
                 ? Set.of(RoleType.CUSTOMER)
                 : dto.roles();
 
-        List<Role> roles = roleRepository.findByNameIn(requested);
-        if (roles.size() != requested.size()) {
-            // tìm role nào không tồn tại trong DB
-            Set<RoleType> found = roles.stream().map(Role::getName).collect(Collectors.toSet());
-            Set<RoleType> missing = new HashSet<>(requested); missing.removeAll(found);
-            throw new IllegalArgumentException("Missing roles in DB: " + missing);
-        }
+        Set<Role> roles = roleRegistry.resolve(requested);
 
-        User u = User.builder()
+        User saved = userRepository.saveAndFlush(newUser(dto, passwordHash, roles));
+        // thêm ngay (kể cả khi rollback chỉ tạo thêm false positive) để request song song không bỏ qua DB
+        emailBloomFilter.add(saved.getEmail());
+        adminStatsService.onUserCreated(requested);
+        return UserMapper.toDto(saved);
+    }
+
+    private static User newUser(CreateUserRequestDto dto, String passwordHash, Set<Role> roles) {
+        return User.builder()
                 .fullName(dto.fullName())
-                .email(dto.email())
+                .email(dto.email() != null ? dto.email().trim() : null)
                 .phone(dto.phone())
-                .password(passwordEncoder.encode(dto.password()))
+                .password(passwordHash)
                 .avatarUrl(dto.avatarUrl())
                 .dateOfBirth(dto.dateOfBirth())
                 .gender(dto.gender())
                 .isActive(dto.isActive() != null ? dto.isActive() : true)
-                .roles(new HashSet<>(roles))
+                .roles(roles)
                 .build();
+    }
+
+    /* ========= import hàng loạt (NDJSON) ========= */
+    private record BulkRow(long line, CreateUserRequestDto dto, String email, Set<RoleType> roleTypes, Set<Role> roles) {}
+    private record HashedRow(BulkRow row, String passwordHash) {}
+
+    // Đọc và validate từng dòng, gom chunk; mỗi chunk: kiểm tra email bằng 1 truy vấn,
+    // băm mật khẩu song song trên pool của PasswordHasher, ghi trong 1 transaction
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Timed("qtifood.service")
+    @NoConcurrencyLimit
+    public ImportReportDto importUsers(InputStream ndjson) {
+        long total = 0, imported = 0, failed = 0;
+        List<RowError> errors = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        // roles được resolve một lần cho mỗi tổ hợp role trong cả lô
+        Map<Set<RoleType>, Set<Role>> resolvedRoles = new HashMap<>();
+        List<BulkRow> chunk = new ArrayList<>(CsvImport.CHUNK_SIZE);
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String json;
+            long line = 0;
+            while ((json = in.readLine()) != null) {
+                line++;
+                if (json.isBlank()) continue;
+                total++;
+                String error = null;
+                BulkRow row = null;
+                try {
+                    CreateUserRequestDto dto = objectMapper.readValue(json, CreateUserRequestDto.class);
+                    error = CsvImport.violations(validator.validate(dto));
+                    if (error == null) {
+                        String email = EmailBloomFilter.normalize(dto.email());
+                        if (email != null && !seenEmails.add(email)) {
+                            error = "Duplicate email in request: " + dto.email();
+                        } else {
+                            Set<RoleType> types = (dto.roles() == null || dto.roles().isEmpty())
+                                    ? Set.of(RoleType.CUSTOMER)
+                                    : dto.roles();
+                            Set<Role> roles = resolvedRoles.computeIfAbsent(types, roleRegistry::resolve);
+                            row = new BulkRow(line, dto, email, types, roles);
+                        }
+                    }
+                } catch (JsonProcessingException e) {
+                    error = "Invalid JSON: " + e.getOriginalMessage();
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+
+                if (error != null) {
+                    failed++;
+                    CsvImport.addError(errors, new RowError(line, error));
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CsvImport.CHUNK_SIZE) {
+                    List<RowError> chunkErrors = importChunk(chunk);
+                    imported += chunk.size() - chunkErrors.size();
+                    failed += chunkErrors.size();
+                    chunkErrors.forEach(e -> CsvImport.addError(errors, e));
+                    chunk.clear();
+                    log.info("User import: {} records read, {} imported, {} failed", total, imported, failed);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<RowError> chunkErrors = importChunk(chunk);
+                imported += chunk.size() - chunkErrors.size();
+                failed += chunkErrors.size();
+                chunkErrors.forEach(e -> CsvImport.addError(errors, e));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("User import finished: {} records, {} imported, {} failed", total, imported, failed);
+        return new ImportReportDto(total, imported, failed, errors);
+    }
+
+    private List<RowError> importChunk(List<BulkRow> chunk) {
+        List<RowError> errors = new ArrayList<>();
 
-        return toDto(userRepository.save(u));
+        // chỉ email mà Bloom filter trả "có thể có" mới cần hỏi DB
+        List<String> maybe = chunk.stream()
+                .map(BulkRow::email)
+                .filter(e -> e != null && emailBloomFilter.mightContain(e))
+                .toList();
+        Set<String> existing = maybe.isEmpty() ? Set.of() : userRepository.findExistingNormalizedEmails(maybe);
+        for (int i = existing.size(); i < maybe.size(); i++) emailBloomFilter.recordFalsePositive();
+
+        List<BulkRow> accepted = new ArrayList<>(chunk.size());
+        for (BulkRow row : chunk) {
+            if (row.email() != null && existing.contains(row.email())) {
+                errors.add(new RowError(row.line(), "Email already exists"));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) return errors;
+
+        // băm một lần cho cả chunk; nếu DB từ chối chunk, các lần ghi lại từng dòng dùng lại hash này
+        List<String> hashes = passwordHasher.hashAll(accepted.stream().map(r -> r.dto().password()).toList());
+        List<CsvImport.Row<HashedRow>> rows = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            BulkRow row = accepted.get(i);
+            rows.add(new CsvImport.Row<>(row.line(), new HashedRow(row, hashes.get(i))));
+        }
+        errors.addAll(CsvImport.write(this::writeUsers, rows));
+        return errors;
+    }
+
+    private List<RowError> writeUsers(List<CsvImport.Row<HashedRow>> rows) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            List<User> users = new ArrayList<>(rows.size());
+            for (CsvImport.Row<HashedRow> r : rows) {
+                users.add(newUser(r.dto().row().dto(), r.dto().passwordHash(), new HashSet<>(r.dto().row().roles())));
+            }
+            // saveAllAndFlush thay cho entityManager.flush(): CsvImport.write chỉ bắt lỗi đã được Spring dịch
+            userRepository.saveAllAndFlush(users);
+            entityManager.clear();
+            for (CsvImport.Row<HashedRow> r : rows) {
+                emailBloomFilter.add(r.dto().row().email());
+                adminStatsService.onUserCreated(r.dto().row().roleTypes());
+            }
+        });
+        return List.of();
     }
 
     @Override
-    public UserResponseDto updateUser(Long id, UpdateUserRequestDto dto) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserResponseDto updateUser(Long id, UpdateUserRequestDto dto, String ifMatch) {
+        // If-Match sai định dạng bị từ chối trước khi tốn công băm mật khẩu
+        LocalDateTime expected = ETags.expectedUpdatedAt(ifMatch, id);
+        String passwordHash = (dto.password() != null && !dto.password().isBlank())
+                ? passwordHasher.hash(dto.password())
+                : null;
+        return transactionTemplate.execute(tx -> applyUserUpdate(id, dto, passwordHash, expected));
+    }
+
+    private UserResponseDto applyUserUpdate(Long id, UpdateUserRequestDto dto, String passwordHash,
+                                            LocalDateTime expected) {
+        // compare-and-set trên updated_at thay cho khoá bi quan; chạy trước findById vì query clear persistence context
+        if (expected != null && userRepository.touchIfUnmodified(id, expected, ETags.now()) == 0) {
+            if (!userRepository.existsById(id)) throw new IllegalArgumentException("User not found: " + id);
+            throw ETags.preconditionFailed(id);
+        }
         User u = userRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + id));
+        Set<RoleType> rolesBefore = roleTypes(u);
 
         if (dto.fullName() != null) u.setFullName(dto.fullName());
-        if (dto.email() != null)  u.setEmail(dto.email());
+        if (dto.email() != null && !dto.email().trim().equals(u.getEmail())) {
+            if (emailTaken(dto.email(), id)) throw new IllegalArgumentException("Email already exists");
+            u.setEmail(dto.email().trim());
+            emailBloomFilter.add(u.getEmail());
+        }
         if (dto.phone() != null)  u.setPhone(dto.phone());
         if (dto.avatarUrl() != null) u.setAvatarUrl(dto.avatarUrl());
         if (dto.dateOfBirth() != null) u.setDateOfBirth(dto.dateOfBirth());
         if (dto.gender() != null) u.setGender(dto.gender());
         if (dto.isActive() != null) u.setIsActive(dto.isActive());
-        if (dto.password() != null && !dto.password().isBlank()) {
-            u.setPassword(passwordEncoder.encode(dto.password()));
-        }
+        if (passwordHash != null) u.setPassword(passwordHash);
 
         // Nếu có truyền roles → ghi đè danh sách roles
         if (dto.roles() != null) {
             if (dto.roles().isEmpty()) {
                 u.getRoles().clear(); // cho phép xóa hết roles nếu muốn
             } else {
-                List<Role> roles = roleRepository.findByNameIn(dto.roles());
-                if (roles.size() != dto.roles().size()) {
-                    Set<RoleType> found = roles.stream().map(Role::getName).collect(Collectors.toSet());
-                    Set<RoleType> missing = new HashSet<>(dto.roles()); missing.removeAll(found);
-                    throw new IllegalArgumentException("Missing roles in DB: " + missing);
-                }
-                u.setRoles(new HashSet<>(roles));
+                u.setRoles(roleRegistry.resolve(dto.roles()));
             }
+            adminStatsService.onUserRolesChanged(rolesBefore, roleTypes(u));
+            // chỉ đổi collection không làm entity dirty → @UpdateTimestamp không chạy
+            u.setUpdatedAt(ETags.now());
         }
 
-        return toDto(userRepository.save(u));
+        return UserMapper.toDto(userRepository.saveAndFlush(u));
     }
 
     @Override
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) throw new IllegalArgumentException("User not found: " + id);
-        userRepository.deleteById(id);
+        User u = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + id));
+        Set<RoleType> roles = roleTypes(u);
+        userRepository.delete(u);
+        adminStatsService.onUserDeleted(roles);
     }
 
-    /* ========= tiện ích gán/bỏ role riêng lẻ ========= */
+    /* ========= gán/bỏ role: ghi thẳng vào user_roles, không nạp entity ========= */
+    @Override
     public UserResponseDto addRole(Long userId, RoleType roleType) {
-        User u = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-        Role r = roleRepository.findByName(roleType)
-                .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleType));
-        u.getRoles().add(r);
-        return toDto(userRepository.save(u));
+        if (!userRepository.existsById(userId)) throw new IllegalArgumentException("User not found: " + userId);
+        changeRole(roleType, List.of(userId), true);
+        return getUser(userId);
     }
 
+    @Override
     public UserResponseDto removeRole(Long userId, RoleType roleType) {
-        User u = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-        u.getRoles().removeIf(role -> role.getName() == roleType);
-        return toDto(userRepository.save(u));
+        if (!userRepository.existsById(userId)) throw new IllegalArgumentException("User not found: " + userId);
+        changeRole(roleType, List.of(userId), false);
+        return getUser(userId);
+    }
+
+    @Override
+    public BulkRoleResultDto assignRole(RoleType role, BulkRoleRequestDto request) {
+        List<Long> ids = targetUserIds(request);
+        return new BulkRoleResultDto(role, ids.size(), changeRole(role, ids, true));
+    }
+
+    @Override
+    public BulkRoleResultDto revokeRole(RoleType role, BulkRoleRequestDto request) {
+        List<Long> ids = targetUserIds(request);
+        return new BulkRoleResultDto(role, ids.size(), changeRole(role, ids, false));
+    }
+
+    private List<Long> targetUserIds(BulkRoleRequestDto request) {
+        boolean hasIds = request.userIds() != null && !request.userIds().isEmpty();
+        if (!hasIds && !request.hasFilter()) {
+            throw new IllegalArgumentException("Either userIds or a filter (hasRole, isActive, storeOwner) is required");
+        }
+        if (!request.hasFilter()) return request.userIds().stream().sorted().toList();
+        List<Long> ids = userRepository.findIdsByRoleFilter(request.hasRole(), request.isActive(), request.storeOwner());
+        return hasIds ? ids.stream().filter(request.userIds()::contains).toList() : ids;
+    }
+
+    // chia lô id để không vượt giới hạn số tham số của một câu lệnh
+    private int changeRole(RoleType roleType, List<Long> userIds, boolean assign) {
+        Long roleId = roleRegistry.get(roleType).getId();
+        int changed = 0;
+        for (int from = 0; from < userIds.size(); from += ROLE_CHANGE_BATCH) {
+            List<Long> batch = userIds.subList(from, Math.min(userIds.size(), from + ROLE_CHANGE_BATCH));
+            int n = assign
+                    ? userRepository.insertUserRoles(batch, roleId)
+                    : userRepository.deleteUserRoles(batch, roleId);
+            // không biết chính xác user nào đổi → chạm cả lô, cùng lắm làm mất hiệu lực thừa vài ETag
+            if (n > 0) userRepository.touch(batch, ETags.now());
+            changed += n;
+        }
+        adminStatsService.onRoleMembersChanged(roleType, assign ? changed : -changed);
+        return changed;
+    }
+
+    // Bloom filter trả "không có" → chắc chắn chưa tồn tại, bỏ qua truy vấn
+    private boolean emailTaken(String email, Long excludeId) {
+        if (email == null || email.isBlank() || !emailBloomFilter.mightContain(email)) return false;
+        boolean taken = userRepository.existsByNormalizedEmail(EmailBloomFilter.normalize(email), excludeId);
+        if (!taken) emailBloomFilter.recordFalsePositive();
+        return taken;
+    }
+
+    private static Set<RoleType> roleTypes(User u) {
+        return u.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
     }
 }
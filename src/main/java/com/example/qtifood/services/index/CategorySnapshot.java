@@ -0,0 +1,187 @@
+package com.example.qtifood.services.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import com.example.qtifood.dtos.Categories.CategoryResponseDto;
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.common.PrecomputedJson;
+import com.example.qtifood.repositories.CategoriesRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Toàn bộ bảng categories trong bộ nhớ, dạng snapshot bất biến có số phiên bản.
+ * Mỗi thay đổi dựng một snapshot mới rồi thay nguyên khối, nên luồng đọc không cần khóa và không truy vấn DB.
+ * JSON của từng trang (theo cursor/size/withTotal) được serialize một lần cho mỗi snapshot và giữ lại
+ * cùng ETag, tối đa {@link #MAX_CACHED_PAGES} trang; vượt quá thì serialize theo từng request.
+ * <p>
+ * Hook afterCommit của các transaction đồng thời có thể chạy khác thứ tự commit, nên {@link #put} bỏ qua
+ * bản có {@code updatedAt} cũ hơn bản đang giữ, và id đã xoá được nhớ lại (tombstone) để một put đến muộn
+ * không làm category sống lại. Id sinh từ sequence, không dùng lại; {@link #load()} xoá tombstone.
+ */
+@Slf4j
+@Component
+public class CategorySnapshot implements MeterBinder {
+
+    private static final int MAX_CACHED_PAGES = 256;
+
+    private record PageKey(long afterId, int size, boolean withTotal) {}
+
+    // items sắp theo id tăng dần; ids song song với items để tìm cursor bằng binary search
+    private record Snapshot(long version, List<CategoryResponseDto> items, long[] ids,
+                            Map<PageKey, PrecomputedJson> pages) {
+
+        static Snapshot of(long version, List<CategoryResponseDto> items) {
+            long[] ids = new long[items.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = items.get(i).id();
+            return new Snapshot(version, List.copyOf(items), ids, new ConcurrentHashMap<>());
+        }
+
+        // dòng sau cursor, lấy dư 1 dòng như CursorRequest.fetchLimit()
+        List<CategoryResponseDto> seek(long afterId, int size) {
+            int from = Arrays.binarySearch(ids, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            return items.subList(from, Math.min(items.size(), from + size + 1));
+        }
+    }
+
+    private final CategoriesRepository categoriesRepository;
+    private final ObjectMapper objectMapper;
+    private final Counter pageHits;
+    private final Counter pageMisses;
+
+    private volatile Snapshot current;
+    // chỉ đọc/ghi trong các method synchronized
+    private final Set<Long> deleted = new HashSet<>();
+
+    public CategorySnapshot(CategoriesRepository categoriesRepository, ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.categoriesRepository = categoriesRepository;
+        this.objectMapper = objectMapper;
+        this.pageHits = Counter.builder("qtifood.category.snapshot.pages").tag("result", "hit")
+                .description("Category pages served from pre-serialized JSON")
+                .register(meterRegistry);
+        this.pageMisses = Counter.builder("qtifood.category.snapshot.pages").tag("result", "miss")
+                .description("Category pages serialized on request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qtifood.category.snapshot.size", this, c -> c.current == null ? 0 : c.current.items().size())
+                .description("Categories in the current snapshot")
+                .register(registry);
+        Gauge.builder("qtifood.category.snapshot.version", this, c -> c.current == null ? 0 : c.current.version())
+                .description("Snapshots built since startup")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        List<CategoryResponseDto> items = categoriesRepository.findAll(Sort.by("id")).stream()
+                .map(c -> new CategoryResponseDto(c.getId(), c.getName(), c.getDescription(), c.getImageUrl(),
+                        c.getIsActive(), c.getCreatedAt(), c.getUpdatedAt()))
+                .toList();
+        current = Snapshot.of(nextVersion(), items);
+        deleted.clear();
+        log.info("Category snapshot v{} loaded: {} categories", current.version(), items.size());
+    }
+
+    // gọi sau khi category đã commit
+    public synchronized void put(CategoryResponseDto dto) {
+        if (deleted.contains(dto.id())) return;
+        Snapshot s = snapshot();
+        int at = Arrays.binarySearch(s.ids(), dto.id());
+        if (at >= 0 && isOlder(dto, s.items().get(at))) return;
+        List<CategoryResponseDto> items = new ArrayList<>(s.items());
+        if (at >= 0) items.set(at, dto); else items.add(-at - 1, dto);
+        current = Snapshot.of(nextVersion(), items);
+    }
+
+    public synchronized void remove(Long id) {
+        deleted.add(id);
+        Snapshot s = snapshot();
+        int at = Arrays.binarySearch(s.ids(), id);
+        if (at < 0) return;
+        List<CategoryResponseDto> items = new ArrayList<>(s.items());
+        items.remove(at);
+        current = Snapshot.of(nextVersion(), items);
+    }
+
+    public CursorPage<CategoryResponseDto> page(CursorRequest req) {
+        return page(snapshot(), req);
+    }
+
+    public PrecomputedJson pageJson(CursorRequest req) {
+        Snapshot s = snapshot();
+        PageKey key = new PageKey(req.afterId(), req.size(), req.withTotal());
+        PrecomputedJson cached = s.pages().get(key);
+        if (cached != null) {
+            pageHits.increment();
+            return cached;
+        }
+        pageMisses.increment();
+        PrecomputedJson json = serialize(page(s, req));
+        // chấp nhận vượt giới hạn một chút khi nhiều luồng cùng ghi; snapshot mới sẽ bắt đầu lại từ rỗng
+        if (s.pages().size() < MAX_CACHED_PAGES) {
+            PrecomputedJson raced = s.pages().putIfAbsent(key, json);
+            if (raced != null) return raced;
+        }
+        return json;
+    }
+
+    private static CursorPage<CategoryResponseDto> page(Snapshot s, CursorRequest req) {
+        Long total = req.withTotal() ? (long) s.items().size() : null;
+        return CursorPage.of(s.seek(req.afterId(), req.size()), req, CategoryResponseDto::id, Function.identity(), total);
+    }
+
+    private PrecomputedJson serialize(CursorPage<CategoryResponseDto> page) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(page);
+            return new PrecomputedJson(bytes, "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize category page", e);
+        }
+    }
+
+    private static boolean isOlder(CategoryResponseDto dto, CategoryResponseDto held) {
+        return dto.updatedAt() != null && held.updatedAt() != null && dto.updatedAt().isBefore(held.updatedAt());
+    }
+
+    private long nextVersion() {
+        Snapshot s = current;
+        return s == null ? 1 : s.version() + 1;
+    }
+
+    // request đến trước ApplicationReadyEvent → tự nạp
+    private Snapshot snapshot() {
+        Snapshot s = current;
+        if (s == null) {
+            load();
+            s = current;
+        }
+        return s;
+    }
+}
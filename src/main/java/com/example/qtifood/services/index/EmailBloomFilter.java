@@ -0,0 +1,179 @@
+package com.example.qtifood.services.index;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qtifood.repositories.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter của email đã chuẩn hóa (trim + lower-case) trong bảng users.
+ * "Không có" là chắc chắn → đăng ký mới bỏ qua truy vấn kiểm tra trùng;
+ * "có thể có" → phải hỏi DB. Xóa user không xóa bit, chỉ làm tăng false positive đến lần nạp lại sau.
+ * Trước khi nạp xong, filter luôn trả "có thể có" để không bỏ sót email đã tồn tại.
+ */
+@Slf4j
+@Component
+public class EmailBloomFilter implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final int numBits;
+    private final int numHashes;
+    private final Counter negatives;
+    private final Counter maybes;
+    private final Counter falsePositives;
+
+    private volatile AtomicLongArray bits;
+    // bit set mới đang được nạp; add() ghi vào cả hai để không mất email tạo trong lúc nạp
+    private volatile AtomicLongArray pending;
+    private volatile boolean ready;
+    private final AtomicLong entries = new AtomicLong();
+
+    public EmailBloomFilter(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.email-bloom.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${app.email-bloom.fpp:0.01}") double fpp) {
+        this.userRepository = userRepository;
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(words(numBits));
+
+        this.negatives = Counter.builder("qtifood.email.bloom.checks").tag("result", "negative")
+                .description("Email checks answered by the filter alone")
+                .register(meterRegistry);
+        this.maybes = Counter.builder("qtifood.email.bloom.checks").tag("result", "maybe")
+                .description("Email checks that needed a database lookup")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("qtifood.email.bloom.false.positives")
+                .description("Database lookups that found no matching email")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qtifood.email.bloom.fpp", this, EmailBloomFilter::expectedFpp)
+                .description("Expected false-positive rate from the current fill ratio")
+                .register(registry);
+        Gauge.builder("qtifood.email.bloom.memory", this, f -> (double) f.bits.length() * Long.BYTES)
+                .description("Size of the bit array")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("qtifood.email.bloom.entries", entries, AtomicLong::get)
+                .description("Emails added since the last load")
+                .register(registry);
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        AtomicLongArray fresh = new AtomicLongArray(words(numBits));
+        pending = fresh;
+        entries.set(0);
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(e -> {
+                set(fresh, normalize(e));
+                entries.incrementAndGet();
+            });
+        }
+        bits = fresh;
+        pending = null;
+        ready = true;
+        log.info("Email bloom filter loaded: {} emails, {} KiB, k = {}, expected fpp = {}",
+                entries.get(), (long) fresh.length() * Long.BYTES / 1024, numHashes, String.format("%.4f", expectedFpp()));
+    }
+
+    public void add(String email) {
+        String key = normalize(email);
+        if (key == null) return;
+        set(bits, key);
+        AtomicLongArray loading = pending;
+        if (loading != null) set(loading, key);
+        entries.incrementAndGet();
+    }
+
+    public boolean mightContain(String email) {
+        String key = normalize(email);
+        if (!ready) return true;
+        AtomicLongArray current = bits;
+        long h = hash(key);
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            if ((current.get(bit >>> 6) & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        maybes.increment();
+        return true;
+    }
+
+    // gọi khi DB xác nhận email chưa tồn tại sau một lần "có thể có"
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    // (tỉ lệ bit 1)^k
+    double expectedFpp() {
+        AtomicLongArray current = bits;
+        long set = 0;
+        for (int i = 0; i < current.length(); i++) set += Long.bitCount(current.get(i));
+        return Math.pow((double) set / numBits, numHashes);
+    }
+
+    private void set(AtomicLongArray target, String key) {
+        long h = hash(key);
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long old;
+            do {
+                old = target.get(word);
+                if ((old & mask) != 0) break;
+            } while (!target.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    private int index(int combined) {
+        return (combined & Integer.MAX_VALUE) % numBits;
+    }
+
+    private static int words(int numBits) {
+        return (numBits + 63) >>> 6;
+    }
+
+    // FNV-1a 64 bit + bước trộn cuối của MurmurHash3 để các bit thấp/cao phân bố đều
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
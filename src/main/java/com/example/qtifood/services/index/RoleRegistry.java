@@ -0,0 +1,102 @@
+package com.example.qtifood.services.index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qtifood.entities.Role;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.repositories.RoleRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bảng roles trong bộ nhớ, khóa theo {@link RoleType}.
+ * Snapshot là một EnumMap bất biến, được thay nguyên khối (copy-on-write) khi có role mới,
+ * nên luồng đọc không cần khóa và không tốn truy vấn nào.
+ * Các {@link Role} trong snapshot là entity detached, chỉ dùng để gắn quan hệ (theo id).
+ * Khi không tìm thấy role (ví dụ role được thêm thẳng vào DB), registry nạp lại tối đa mỗi
+ * {@link #RELOAD_ON_MISS_INTERVAL_NANOS} một lần rồi mới báo lỗi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+
+    private static final long RELOAD_ON_MISS_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<RoleType, Role> roles;
+    private volatile long loadedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        Map<RoleType, Role> byName = new EnumMap<>(RoleType.class);
+        for (Role r : roleRepository.findAll()) byName.put(r.getName(), r);
+        roles = Collections.unmodifiableMap(byName);
+        loadedAt = System.nanoTime();
+        log.info("Role registry loaded: {}", byName.keySet());
+    }
+
+    // gọi sau khi role mới đã commit
+    public synchronized void put(Role role) {
+        Map<RoleType, Role> byName = new EnumMap<>(RoleType.class);
+        byName.putAll(snapshot());
+        byName.put(role.getName(), role);
+        roles = Collections.unmodifiableMap(byName);
+    }
+
+    public Role get(RoleType name) {
+        Role r = snapshot().get(name);
+        if (r == null && reloadOnMiss()) r = roles.get(name);
+        if (r == null) throw new IllegalArgumentException("Role not found: " + name);
+        return r;
+    }
+
+    public List<Role> all() {
+        return List.copyOf(snapshot().values());
+    }
+
+    // mọi role phải tồn tại, nếu không → IllegalArgumentException liệt kê các role thiếu
+    public Set<Role> resolve(Collection<RoleType> names) {
+        Map<RoleType, Role> current = snapshot();
+        if (!current.keySet().containsAll(names) && reloadOnMiss()) current = roles;
+        Set<Role> found = new HashSet<>();
+        Set<RoleType> missing = EnumSet.noneOf(RoleType.class);
+        for (RoleType name : names) {
+            Role r = current.get(name);
+            if (r == null) missing.add(name); else found.add(r);
+        }
+        if (!missing.isEmpty()) throw new IllegalArgumentException("Missing roles in DB: " + missing);
+        return found;
+    }
+
+    private synchronized boolean reloadOnMiss() {
+        if (System.nanoTime() - loadedAt < RELOAD_ON_MISS_INTERVAL_NANOS) return false;
+        load();
+        return true;
+    }
+
+    // request đến trước ApplicationReadyEvent → tự nạp
+    private Map<RoleType, Role> snapshot() {
+        Map<RoleType, Role> current = roles;
+        if (current == null) {
+            load();
+            current = roles;
+        }
+        return current;
+    }
+}
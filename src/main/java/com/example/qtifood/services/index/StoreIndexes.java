@@ -0,0 +1,94 @@
+package com.example.qtifood.services.index;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.repositories.StoreRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Điểm ghi duy nhất của ba index cửa hàng: nạp lúc khởi động (một truy vấn cho cả ba) và cập nhật từ afterCommit.
+ * Callback của hai transaction cùng sửa một store có thể chạy ngược thứ tự commit, và upsert của một
+ * lần sửa có thể đến sau khi store đã bị xoá: bản có {@code updatedAt} cũ hơn bản đã áp dụng bị bỏ qua,
+ * id đã xoá được giữ lại làm tombstone trong {@link #TOMBSTONE_TTL} (đủ lâu hơn khoảng trễ giữa các callback).
+ * Cả ba index được cập nhật trong cùng một khoá nên luôn khớp nhau.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoreIndexes {
+
+    static final Duration TOMBSTONE_TTL = Duration.ofMinutes(5);
+
+    private final StoreRepository storeRepository;
+    private final StoreSpatialIndex spatialIndex;
+    private final StoreSearchIndex searchIndex;
+    private final StoreOpeningHoursIndex openingHoursIndex;
+    private final Clock clock;
+
+    // chỉ đọc/ghi trong các method synchronized; deletedAt theo thứ tự xoá để dọn từ đầu
+    private final Map<Long, LocalDateTime> appliedAt = new HashMap<>();
+    private final LinkedHashMap<Long, Instant> deletedAt = new LinkedHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        List<StoreRepository.StoreIndexView> views = storeRepository.findAllProjectedBy();
+        appliedAt.clear();
+        deletedAt.clear();
+        for (StoreRepository.StoreIndexView v : views) {
+            if (v.getUpdatedAt() != null) appliedAt.put(v.getId(), v.getUpdatedAt());
+        }
+        spatialIndex.load(views);
+        searchIndex.load(views);
+        openingHoursIndex.load(views);
+    }
+
+    public synchronized void upsert(Store s) {
+        Long id = s.getId();
+        expireTombstones();
+        if (id == null || deletedAt.containsKey(id)) return;
+        LocalDateTime at = s.getUpdatedAt();
+        LocalDateTime held = appliedAt.get(id);
+        if (at != null && held != null && at.isBefore(held)) return;
+        if (at != null) appliedAt.put(id, at);
+        spatialIndex.upsert(s);
+        searchIndex.upsert(s);
+        openingHoursIndex.upsert(s);
+    }
+
+    public synchronized void remove(Long id) {
+        expireTombstones();
+        deletedAt.remove(id);
+        deletedAt.put(id, clock.instant());
+        appliedAt.remove(id);
+        spatialIndex.remove(id);
+        searchIndex.remove(id);
+        openingHoursIndex.remove(id);
+    }
+
+    synchronized int tombstones() {
+        return deletedAt.size();
+    }
+
+    private void expireTombstones() {
+        Instant cutoff = clock.instant().minus(TOMBSTONE_TTL);
+        for (Iterator<Instant> it = deletedAt.values().iterator(); it.hasNext(); ) {
+            if (it.next().isAfter(cutoff)) break;
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.qtifood.services.index;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.repositories.StoreRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bảng bucket theo giờ trong ngày cho giờ mở cửa của cửa hàng.
+ * Mỗi store nằm trong các bucket giờ mà khung [openTime, closeTime) chạm tới; truy vấn chỉ
+ * kiểm tra chính xác các store trong bucket của giờ cần hỏi. Bucket giữ id theo thứ tự tăng dần
+ * nên một trang keyset đọc thẳng phần sau cursor, không phải lọc và sắp xếp cả bucket.
+ * Khung qua nửa đêm (22:00–02:00) được tách thành [22:00, 24:00) và [00:00, 02:00).
+ * openTime == closeTime được hiểu là mở cả ngày; store thiếu giờ mở/đóng không bao giờ "đang mở".
+ */
+@Slf4j
+@Component
+public class StoreOpeningHoursIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    record Window(int openMinute, int closeMinute) {
+
+        boolean contains(int minute) {
+            if (openMinute == closeMinute) return true;
+            if (openMinute < closeMinute) return minute >= openMinute && minute < closeMinute;
+            return minute >= openMinute || minute < closeMinute;
+        }
+    }
+
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+    private final List<NavigableSet<Long>> hourBuckets =
+            IntStream.range(0, 24).<NavigableSet<Long>>mapToObj(h -> new ConcurrentSkipListSet<>()).toList();
+
+    synchronized void load(List<StoreRepository.StoreIndexView> views) {
+        windows.clear();
+        for (NavigableSet<Long> bucket : hourBuckets) bucket.clear();
+        for (StoreRepository.StoreIndexView v : views) {
+            put(v.getId(), v.getOpenTime(), v.getCloseTime());
+        }
+        log.info("Store opening-hours index loaded: {} stores with hours", windows.size());
+    }
+
+    public void upsert(Store s) {
+        put(s.getId(), s.getOpenTime(), s.getCloseTime());
+    }
+
+    public synchronized void remove(Long id) {
+        if (windows.remove(id) != null) {
+            for (NavigableSet<Long> bucket : hourBuckets) bucket.remove(id);
+        }
+    }
+
+    public boolean isOpen(Long id, LocalTime at) {
+        Window w = windows.get(id);
+        return w != null && w.contains(minuteOfDay(at));
+    }
+
+    /** Tối đa {@code limit} id store đang mở tại {@code at} và lớn hơn {@code afterId}, theo thứ tự tăng dần. */
+    public List<Long> openAfter(LocalTime at, long afterId, int limit) {
+        int minute = minuteOfDay(at);
+        List<Long> result = new ArrayList<>();
+        for (Long id : hourBuckets.get(at.getHour()).tailSet(afterId, false)) {
+            if (result.size() == limit) break;
+            Window w = windows.get(id);
+            if (w != null && w.contains(minute)) result.add(id);
+        }
+        return result;
+    }
+
+    /** Số store đang mở tại {@code at}. */
+    public int countOpenAt(LocalTime at) {
+        int minute = minuteOfDay(at);
+        int count = 0;
+        for (Long id : hourBuckets.get(at.getHour())) {
+            Window w = windows.get(id);
+            if (w != null && w.contains(minute)) count++;
+        }
+        return count;
+    }
+
+    private synchronized void put(Long id, LocalTime open, LocalTime close) {
+        if (id == null) return;
+        remove(id);
+        if (open == null || close == null) return;
+        Window w = new Window(minuteOfDay(open), minuteOfDay(close));
+        windows.put(id, w);
+        for (int h = 0; h < 24; h++) {
+            if (touchesHour(w, h)) hourBuckets.get(h).add(id);
+        }
+    }
+
+    private static boolean touchesHour(Window w, int hour) {
+        int start = hour * 60, end = start + 60;
+        if (w.openMinute() == w.closeMinute()) return true;
+        if (w.openMinute() < w.closeMinute()) return overlaps(w.openMinute(), w.closeMinute(), start, end);
+        return overlaps(w.openMinute(), MINUTES_PER_DAY, start, end) || overlaps(0, w.closeMinute(), start, end);
+    }
+
+    private static boolean overlaps(int from, int to, int start, int end) {
+        return from < end && to > start;
+    }
+
+    private static int minuteOfDay(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.qtifood.services.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.repositories.StoreRepository;
+import com.example.qtifood.utils.TextNormalizer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inverted index trigram trên tên cửa hàng đã bỏ dấu, thay cho {@code lower(name) like %q%}.
+ * Gõ "pho" sẽ khớp "Phở", kết quả được xếp hạng theo độ tương đồng trigram.
+ */
+@Slf4j
+@Component
+public class StoreSearchIndex {
+
+    static final double MIN_SIMILARITY = 0.3;
+    static final int MIN_TRIGRAM_QUERY = 3;
+
+    public record Hit(long id, double score) {}
+
+    private record Doc(String folded, Set<String> trigrams) {}
+
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    synchronized void load(List<StoreRepository.StoreIndexView> views) {
+        docs.clear();
+        postings.clear();
+        for (StoreRepository.StoreIndexView v : views) {
+            put(v.getId(), v.getName());
+        }
+        log.info("Store search index loaded: {} stores, {} trigrams", docs.size(), postings.size());
+    }
+
+    public void upsert(Store s) {
+        put(s.getId(), s.getName());
+    }
+
+    public synchronized void remove(Long id) {
+        Doc old = docs.remove(id);
+        if (old == null) return;
+        for (String t : old.trigrams()) {
+            postings.computeIfPresent(t, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    public List<Hit> search(String query, int limit) {
+        String q = TextNormalizer.fold(query);
+        if (q.isEmpty()) return List.of();
+        if (q.length() < MIN_TRIGRAM_QUERY) return scan(q, limit);
+        Set<String> qTrigrams = TextNormalizer.trigrams(q);
+
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String t : qTrigrams) {
+            Set<Long> ids = postings.get(t);
+            if (ids == null) continue;
+            for (Long id : ids) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : shared.entrySet()) {
+            Doc doc = docs.get(e.getKey());
+            if (doc == null) continue;
+            int common = e.getValue();
+            double similarity = (double) common / (qTrigrams.size() + doc.trigrams().size() - common);
+            double score = similarity;
+            if (doc.folded().startsWith(q)) {
+                score += 2;
+            } else if (doc.folded().contains(q)) {
+                score += 1;
+            } else if (similarity < MIN_SIMILARITY) {
+                continue;
+            }
+            hits.add(new Hit(e.getKey(), score));
+        }
+
+        return top(hits, limit);
+    }
+
+    // truy vấn 1-2 ký tự gần như không chung trigram với tên nào, quét tuần tự theo chuỗi con
+    private List<Hit> scan(String q, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        for (Map.Entry<Long, Doc> e : docs.entrySet()) {
+            String folded = e.getValue().folded();
+            if (folded.startsWith(q)) {
+                hits.add(new Hit(e.getKey(), 2));
+            } else if (folded.contains(q)) {
+                hits.add(new Hit(e.getKey(), 1));
+            }
+        }
+        return top(hits, limit);
+    }
+
+    private static List<Hit> top(List<Hit> hits, int limit) {
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    private synchronized void put(Long id, String name) {
+        if (id == null) return;
+        remove(id);
+        String folded = TextNormalizer.fold(name);
+        Doc doc = new Doc(folded, TextNormalizer.trigrams(folded));
+        docs.put(id, doc);
+        for (String t : doc.trigrams()) {
+            postings.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+}
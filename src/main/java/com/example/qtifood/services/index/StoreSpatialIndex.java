@@ -0,0 +1,222 @@
+package com.example.qtifood.services.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qtifood.entities.GeoPoint;
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.entities.StoreStatus;
+import com.example.qtifood.repositories.StoreRepository;
+import com.example.qtifood.utils.GeoUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lưới toạ độ (grid) trong bộ nhớ cho truy vấn cửa hàng gần nhất.
+ * Mỗi ô rộng {@link #CELL_DEG} độ (~1.1 km); truy vấn chỉ duyệt các ô nằm trong
+ * bounding box của bán kính thay vì quét toàn bộ bảng stores.
+ * Mỗi ô giữ toạ độ microdegree trong mảng nguyên thuỷ và được thay nguyên khối khi có thay đổi
+ * (copy-on-write), nên khoảng cách của cả ô được tính theo lô, không cấp phát theo từng cửa hàng.
+ */
+@Slf4j
+@Component
+public class StoreSpatialIndex {
+
+    static final double CELL_DEG = 0.01;
+    private static final long LNG_CELLS = Math.round(360 / CELL_DEG) + 1;
+    private static final int CELL_E6 = (int) Math.round(CELL_DEG * GeoPoint.SCALE);
+
+    public record Hit(long id, double distanceKm) {}
+
+    // mảng song song, không bao giờ bị sửa sau khi tạo
+    record Cell(long[] ids, int[] latsE6, int[] lngsE6, StoreStatus[] statuses) {
+
+        int size() {
+            return ids.length;
+        }
+
+        Cell with(long id, int latE6, int lngE6, StoreStatus status) {
+            int n = ids.length;
+            long[] i = Arrays.copyOf(ids, n + 1);
+            int[] la = Arrays.copyOf(latsE6, n + 1);
+            int[] ln = Arrays.copyOf(lngsE6, n + 1);
+            StoreStatus[] st = Arrays.copyOf(statuses, n + 1);
+            i[n] = id;
+            la[n] = latE6;
+            ln[n] = lngE6;
+            st[n] = status;
+            return new Cell(i, la, ln, st);
+        }
+
+        // null nếu ô trở thành rỗng
+        Cell without(long id) {
+            int at = -1;
+            for (int k = 0; k < ids.length; k++) {
+                if (ids[k] == id) {
+                    at = k;
+                    break;
+                }
+            }
+            if (at < 0) return this;
+            if (ids.length == 1) return null;
+            return new Cell(removeAt(ids, at), removeAt(latsE6, at), removeAt(lngsE6, at), removeAt(statuses, at));
+        }
+    }
+
+    // id → toạ độ đã gói (GeoPoint.packed), để biết store đang nằm ở ô nào khi cập nhật/xoá
+    private final Map<Long, Long> locationById = new ConcurrentHashMap<>();
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    synchronized void load(List<StoreRepository.StoreIndexView> views) {
+        locationById.clear();
+        cells.clear();
+        Map<Long, List<StoreRepository.StoreIndexView>> byCell = new HashMap<>();
+        for (StoreRepository.StoreIndexView v : views) {
+            GeoPoint p = v.getLocation();
+            if (p == null) continue;
+            locationById.put(v.getId(), p.packed());
+            byCell.computeIfAbsent(cellKey(p.getLatE6(), p.getLngE6()), k -> new ArrayList<>()).add(v);
+        }
+        byCell.forEach((key, inCell) -> {
+            int n = inCell.size();
+            Cell c = new Cell(new long[n], new int[n], new int[n], new StoreStatus[n]);
+            for (int i = 0; i < n; i++) {
+                StoreRepository.StoreIndexView v = inCell.get(i);
+                c.ids()[i] = v.getId();
+                c.latsE6()[i] = v.getLocation().getLatE6();
+                c.lngsE6()[i] = v.getLocation().getLngE6();
+                c.statuses()[i] = v.getStatus();
+            }
+            cells.put(key, c);
+        });
+        log.info("Store spatial index loaded: {} stores in {} cells", locationById.size(), cells.size());
+    }
+
+    public synchronized void upsert(Store s) {
+        if (s.getId() == null) return;
+        remove(s.getId());
+        GeoPoint p = s.getLocation();
+        if (p == null) return;
+        locationById.put(s.getId(), p.packed());
+        cells.compute(cellKey(p.getLatE6(), p.getLngE6()), (k, cell) -> cell == null
+                ? new Cell(new long[] {s.getId()}, new int[] {p.getLatE6()}, new int[] {p.getLngE6()},
+                           new StoreStatus[] {s.getStatus()})
+                : cell.with(s.getId(), p.getLatE6(), p.getLngE6(), s.getStatus()));
+    }
+
+    public synchronized void remove(Long id) {
+        Long packed = locationById.remove(id);
+        if (packed != null) {
+            cells.computeIfPresent(cellKey(GeoPoint.unpackLat(packed), GeoPoint.unpackLng(packed)),
+                    (k, cell) -> cell.without(id));
+        }
+    }
+
+    public int size() {
+        return locationById.size();
+    }
+
+    /**
+     * Trả về tối đa {@code limit} cửa hàng trong bán kính {@code radiusKm}, sắp xếp theo khoảng cách tăng dần.
+     * {@code status == null} nghĩa là không lọc theo trạng thái.
+     */
+    public List<Hit> nearby(double lat, double lng, double radiusKm, int limit, StoreStatus status) {
+        double dLat = GeoUtils.kmToLatDegrees(radiusKm);
+        double dLng = GeoUtils.kmToLngDegrees(radiusKm, lat);
+        long minLat = latCell(GeoPoint.toMicrodegrees(Math.max(-90, lat - dLat)));
+        long maxLat = latCell(GeoPoint.toMicrodegrees(Math.min(90, lat + dLat)));
+        long minLng = lngCell(GeoPoint.toMicrodegrees(Math.max(-180, lng - dLng)));
+        long maxLng = lngCell(GeoPoint.toMicrodegrees(Math.min(180, lng + dLng)));
+
+        // max-heap theo khoảng cách, giữ lại limit phần tử gần nhất
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Hit::distanceKm).reversed());
+        // bộ đệm khoảng cách dùng lại cho mọi ô của truy vấn
+        double[] dist = new double[64];
+
+        long boxCells = (maxLat - minLat + 1) * (maxLng - minLng + 1);
+        if (boxCells > cells.size()) {
+            // bán kính lớn: duyệt các ô đang có dữ liệu thay vì từng ô trong bounding box
+            for (Map.Entry<Long, Cell> cell : cells.entrySet()) {
+                long key = cell.getKey();
+                long la = key / LNG_CELLS, ln = key % LNG_CELLS;
+                if (la >= minLat && la <= maxLat && ln >= minLng && ln <= maxLng) {
+                    dist = collect(cell.getValue(), lat, lng, radiusKm, limit, status, heap, dist);
+                }
+            }
+        } else {
+            for (long la = minLat; la <= maxLat; la++) {
+                for (long ln = minLng; ln <= maxLng; ln++) {
+                    Cell cell = cells.get(la * LNG_CELLS + ln);
+                    if (cell != null) {
+                        dist = collect(cell, lat, lng, radiusKm, limit, status, heap, dist);
+                    }
+                }
+            }
+        }
+
+        List<Hit> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return result;
+    }
+
+    // trả về bộ đệm (được nới nếu ô lớn hơn) để dùng cho ô tiếp theo
+    private static double[] collect(Cell cell, double lat, double lng, double radiusKm, int limit,
+                                    StoreStatus status, PriorityQueue<Hit> heap, double[] dist) {
+        int n = cell.size();
+        if (dist.length < n) dist = new double[Math.max(n, dist.length * 2)];
+        GeoUtils.haversineKm(lat, lng, cell.latsE6(), cell.lngsE6(), n, dist);
+        for (int i = 0; i < n; i++) {
+            double d = dist[i];
+            if (d > radiusKm) continue;
+            if (status != null && cell.statuses()[i] != status) continue;
+            if (heap.size() < limit) {
+                heap.add(new Hit(cell.ids()[i], d));
+            } else if (d < heap.peek().distanceKm()) {
+                heap.poll();
+                heap.add(new Hit(cell.ids()[i], d));
+            }
+        }
+        return dist;
+    }
+
+    private static long cellKey(int latE6, int lngE6) {
+        return latCell(latE6) * LNG_CELLS + lngCell(lngE6);
+    }
+
+    private static long latCell(int latE6) {
+        return Math.floorDiv(latE6 + 90 * 1_000_000L, CELL_E6);
+    }
+
+    private static long lngCell(int lngE6) {
+        return Math.floorDiv(lngE6 + 180 * 1_000_000L, CELL_E6);
+    }
+
+    private static long[] removeAt(long[] a, int at) {
+        long[] r = new long[a.length - 1];
+        System.arraycopy(a, 0, r, 0, at);
+        System.arraycopy(a, at + 1, r, at, a.length - at - 1);
+        return r;
+    }
+
+    private static int[] removeAt(int[] a, int at) {
+        int[] r = new int[a.length - 1];
+        System.arraycopy(a, 0, r, 0, at);
+        System.arraycopy(a, at + 1, r, at, a.length - at - 1);
+        return r;
+    }
+
+    private static <T> T[] removeAt(T[] a, int at) {
+        T[] r = Arrays.copyOf(a, a.length - 1);
+        System.arraycopy(a, at + 1, r, at, a.length - at - 1);
+        return r;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.qtifood.services.limit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// 503 kèm Retry-After (ResponseStatusExceptionResolver ghi các header này ra response)
+public class ConcurrencyLimitExceededException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(long retryAfterSeconds, Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Database is saturated, retry later", cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.qtifood.services.limit;
+
+import java.lang.reflect.Method;
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Đặt {@link DbConcurrencyLimiter} quanh phần giữ connection: method services.impl có @Transactional
+ * thực sự mở transaction và lời gọi {@code TransactionTemplate.execute*}. Method đọc cache/index trong bộ nhớ
+ * (SUPPORTS, NOT_SUPPORTED, không có @Transactional) và việc băm mật khẩu trước transaction không chiếm chỗ
+ * và không bị tính vào RTT. Order cao hơn @Transactional để request bị từ chối trước khi kịp xin connection.
+ * Chỉ áp dụng cho lời gọi từ HTTP request và chỉ ở lời gọi ngoài cùng (service gọi service không tính thêm);
+ * job định kỳ, listener khởi động và export dạng stream (chạy trên luồng async) không bị giới hạn.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.db-limiter.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DbConcurrencyLimitAspect {
+
+    private static final Set<Propagation> NO_TRANSACTION =
+            EnumSet.of(Propagation.SUPPORTS, Propagation.NOT_SUPPORTED, Propagation.NEVER);
+
+    // đang giữ chỗ, hoặc đang trong method @NoConcurrencyLimit
+    private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+    private final DbConcurrencyLimiter limiter;
+    private final Map<Method, Boolean> opensTransaction = new ConcurrentHashMap<>();
+
+    @Around("within(com.example.qtifood.services.impl..*) && execution(public * *(..))"
+            + " && (@within(org.springframework.transaction.annotation.Transactional)"
+            + " || @annotation(org.springframework.transaction.annotation.Transactional))"
+            + " && !@within(com.example.qtifood.services.limit.NoConcurrencyLimit)"
+            + " && !@annotation(com.example.qtifood.services.limit.NoConcurrencyLimit)")
+    public Object limitTransactional(ProceedingJoinPoint pjp) throws Throwable {
+        return opensTransaction(pjp) ? limit(pjp) : pjp.proceed();
+    }
+
+    // phần ghi mà service tự mở bằng TransactionTemplate (sau khi băm mật khẩu, từng chunk import...)
+    @Around("execution(* org.springframework.transaction.support.TransactionOperations+.execute*(..))")
+    public Object limitTemplate(ProceedingJoinPoint pjp) throws Throwable {
+        return limit(pjp);
+    }
+
+    // import chạy lâu: các chunk transaction bên trong cũng không bị giới hạn
+    @Around("within(com.example.qtifood.services.impl..*) && execution(public * *(..))"
+            + " && (@within(com.example.qtifood.services.limit.NoConcurrencyLimit)"
+            + " || @annotation(com.example.qtifood.services.limit.NoConcurrencyLimit))")
+    public Object exempt(ProceedingJoinPoint pjp) throws Throwable {
+        if (HOLDING.get() != null) return pjp.proceed();
+        HOLDING.set(Boolean.TRUE);
+        try {
+            return pjp.proceed();
+        } finally {
+            HOLDING.remove();
+        }
+    }
+
+    private Object limit(ProceedingJoinPoint pjp) throws Throwable {
+        if (HOLDING.get() != null || RequestContextHolder.getRequestAttributes() == null) {
+            return pjp.proceed();
+        }
+        if (!limiter.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException(limiter.getRetryAfterSeconds(), null);
+        }
+        HOLDING.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            Object result = pjp.proceed();
+            limiter.onSuccess(System.nanoTime() - start);
+            released = true;
+            return result;
+        } catch (CannotCreateTransactionException e) {
+            if (!isPoolTimeout(e)) throw e;
+            limiter.onDropped();
+            released = true;
+            throw new ConcurrencyLimitExceededException(limiter.getRetryAfterSeconds(), e);
+        } finally {
+            HOLDING.remove();
+            if (!released) limiter.onIgnore();
+        }
+    }
+
+    // @Transactional trên method ưu tiên hơn trên class
+    private boolean opensTransaction(ProceedingJoinPoint pjp) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        Class<?> targetClass = AopUtils.getTargetClass(pjp.getTarget());
+        return opensTransaction.computeIfAbsent(method, m -> {
+            Method specific = AopUtils.getMostSpecificMethod(m, targetClass);
+            Transactional tx = AnnotatedElementUtils.findMergedAnnotation(specific, Transactional.class);
+            if (tx == null) tx = AnnotatedElementUtils.findMergedAnnotation(targetClass, Transactional.class);
+            return tx != null && !NO_TRANSACTION.contains(tx.propagation());
+        });
+    }
+
+    // Hikari hết connection-timeout mà pool vẫn không có connection rảnh
+    private static boolean isPoolTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.qtifood.services.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giới hạn số transaction đồng thời từ request, tự điều chỉnh theo độ trễ quan sát được (kiểu gradient).
+ * Mỗi transaction xong là một mẫu RTT (gồm cả thời gian chờ connection Hikari và chạy SQL):
+ * RTT ngắn hạn vượt {@code rtt-tolerance} lần mức dài hạn → DB đang xếp hàng → hạ limit;
+ * ngược lại limit tăng dần thêm khoảng √limit. Khi pool hết connection (timeout) limit giảm 10% ngay.
+ * Vượt limit thì từ chối ngay với 503 thay vì chờ connection đến hết connection-timeout.
+ */
+@Slf4j
+@Component
+public class DbConcurrencyLimiter implements MeterBinder {
+
+    // EWMA dài hạn ~ 600 mẫu, ngắn hạn ~ 10 mẫu
+    private static final double LONG_WINDOW = 600;
+    private static final double SHORT_WINDOW = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    private volatile double limit;
+    // chỉ đọc/ghi trong synchronized
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public DbConcurrencyLimiter(MeterRegistry meterRegistry,
+                                @Value("${app.db-limiter.initial-limit:20}") int initialLimit,
+                                @Value("${app.db-limiter.min-limit:20}") int minLimit,
+                                @Value("${app.db-limiter.max-limit:200}") int maxLimit,
+                                @Value("${app.db-limiter.rtt-tolerance:2.0}") double rttTolerance,
+                                @Value("${app.db-limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid db-limiter bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        this.accepted = Counter.builder("qtifood.db.limiter.calls").tag("result", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("qtifood.db.limiter.calls").tag("result", "rejected")
+                .description("Service calls rejected with 503")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("qtifood.db.limiter.calls").tag("result", "dropped")
+                .description("Accepted calls that failed waiting for a pooled connection")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qtifood.db.limiter.limit", this, DbConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit of concurrent service calls")
+                .register(registry);
+        Gauge.builder("qtifood.db.limiter.inflight", inFlight, AtomicInteger::get)
+                .register(registry);
+        Gauge.builder("qtifood.db.limiter.rtt", this, l -> l.longRtt() / TimeUnit.SECONDS.toNanos(1))
+                .description("Long-term average service call latency the limiter compares against")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /** Giữ một chỗ; {@code false} nếu đã đủ limit (người gọi trả 503). */
+    public boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /** Trả chỗ và cập nhật limit theo độ trễ của lời gọi vừa xong. */
+    public void onSuccess(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current);
+    }
+
+    /** Trả chỗ khi lời gọi lỗi vì không lấy được connection: pool đã bão hoà, giảm limit ngay. */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        dropped.increment();
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+        }
+    }
+
+    /** Trả chỗ khi lời gọi lỗi vì lý do khác (validate, not found...): không dùng làm mẫu. */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private synchronized double longRtt() {
+        return longRttNanos;
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtEnd) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+
+        // sau một đợt chậm kéo dài, mức dài hạn bị kéo lên theo; hạ dần để limit hồi phục được
+        if (longRttNanos / shortRttNanos > 2) longRttNanos *= 0.95;
+
+        // tải thấp hơn nhiều so với limit thì không có thông tin gì để tăng limit
+        if (inFlightAtEnd < limit / 2) return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double queueSize = Math.sqrt(limit);
+        double target = limit * gradient + queueSize;
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        if ((int) next != (int) limit) log.debug("DB limiter: {} → {} (rtt short {} µs, long {} µs)", (int) limit,
+                (int) next, (long) shortRttNanos / 1000, (long) longRttNanos / 1000);
+        limit = next;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.qtifood.services.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bỏ qua {@link DbConcurrencyLimiter} cho method/class service chạy lâu (import hàng loạt):
+ * không chiếm chỗ trong limit và không làm lệch độ trễ trung bình mà limiter so sánh.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NoConcurrencyLimit {
+}
@@ -0,0 +1,98 @@
+package com.example.qtifood.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc CSV (RFC 4180) theo từng dòng, không nạp cả file vào bộ nhớ.
+ * Hỗ trợ field trong dấu nháy kép, nháy kép escape bằng {@code ""}, xuống dòng trong field và CRLF.
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader in;
+    private long line = 0;
+    private long physicalLine = 1;
+    private boolean eof = false;
+
+    /** Dữ liệu không đúng định dạng CSV (khác với lỗi I/O của luồng đọc). */
+    public static class MalformedCsvException extends IOException {
+        public MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+
+    public CsvReader(Reader in) {
+        this.in = in instanceof BufferedReader br ? br : new BufferedReader(in);
+    }
+
+    // số dòng vật lý (1-based) nơi record vừa đọc bắt đầu
+    public long getLine() {
+        return line;
+    }
+
+    /** Record tiếp theo, hoặc {@code null} khi hết dữ liệu. Dòng trống bị bỏ qua. */
+    public List<String> next() throws IOException {
+        while (!eof) {
+            List<String> record = readRecord();
+            if (record != null && !(record.size() == 1 && record.get(0).isEmpty())) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private List<String> readRecord() throws IOException {
+        line = physicalLine;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while (true) {
+            c = in.read();
+            if (c == -1) {
+                eof = true;
+                if (quoted) throw new MalformedCsvException("Unterminated quoted field starting at line " + line);
+                if (fields.isEmpty() && field.length() == 0) return null;
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int n = in.read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (n != -1) in.reset();
+                    }
+                } else {
+                    if (c == '\n') physicalLine++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r') {
+                // bỏ qua, CRLF được xử lý ở '\n'
+            } else if (c == '\n') {
+                physicalLine++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
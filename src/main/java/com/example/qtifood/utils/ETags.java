@@ -0,0 +1,78 @@
+package com.example.qtifood.utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * ETag dựng từ (id, updatedAt) thay vì hash của body: kiểm tra If-None-Match chỉ cần đọc cột updated_at,
+ * không phải nạp entity hay serialize. updatedAt được mã hoá theo micro giây (độ chính xác của cột timestamp).
+ * Bản ghi trả về kèm ETag phải được {@code saveAndFlush}, vì {@code @UpdateTimestamp} chỉ gán updatedAt lúc flush.
+ * <ul>
+ *   <li>Một bản ghi: {@code "<id>-<micros>"}, thêm {@code -f<hash>} khi trả theo ?fields=.</li>
+ *   <li>Danh sách: {@code W/"<count>-<micros của max(updated_at)>"} — thêm/sửa làm tăng max, xoá làm giảm count.</li>
+ * </ul>
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    public static String of(Long id, LocalDateTime updatedAt) {
+        return of(id, updatedAt, null);
+    }
+
+    public static String of(Long id, LocalDateTime updatedAt, String fields) {
+        String variant = fields == null || fields.isBlank() ? "" : "-f" + Integer.toHexString(fields.hashCode());
+        return "\"" + id + "-" + micros(updatedAt) + variant + "\"";
+    }
+
+    public static String ofList(long count, LocalDateTime maxUpdatedAt, String fields) {
+        String variant = fields == null || fields.isBlank() ? "" : "-f" + Integer.toHexString(fields.hashCode());
+        return "W/\"" + count + "-" + micros(maxUpdatedAt) + variant + "\"";
+    }
+
+    // thời điểm ghi vào updated_at; cắt về micro giây để khớp đúng giá trị DB lưu
+    public static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * updatedAt mà client đọc được, lấy từ header If-Match của bản ghi {@code id}.
+     * {@code null} nếu không có header hoặc là {@code *} (không điều kiện).
+     * ETag yếu, sai định dạng hoặc của bản ghi khác → 412.
+     */
+    public static LocalDateTime expectedUpdatedAt(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (!tag.startsWith(prefix) || !tag.endsWith("\"")) continue;
+            String rest = tag.substring(prefix.length(), tag.length() - 1);
+            int variant = rest.indexOf("-f");
+            try {
+                return fromMicros(Long.parseLong(variant < 0 ? rest : rest.substring(0, variant)));
+            } catch (NumberFormatException e) {
+                break;
+            }
+        }
+        throw preconditionFailed(id);
+    }
+
+    public static ResponseStatusException preconditionFailed(Long id) {
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                "Resource " + id + " was modified since it was read");
+    }
+
+    private static long micros(LocalDateTime t) {
+        if (t == null) return 0;
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
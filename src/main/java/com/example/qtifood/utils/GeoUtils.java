@@ -0,0 +1,65 @@
+package com.example.qtifood.utils;
+
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    // 1 microdegree (độ × 10^-6) tính bằng radian
+    private static final double RAD_PER_MICRODEGREE = Math.PI / 180 / 1_000_000d;
+
+    private GeoUtils() {}
+
+    // Khoảng cách (km) giữa 2 điểm theo công thức haversine
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Haversine từ (lat, lng) đến {@code n} điểm đầu của hai mảng toạ độ microdegree, ghi kết quả (km) vào {@code out}.
+     * Không cấp phát; cos(lat) của điểm gốc chỉ tính một lần cho cả lô.
+     */
+    public static void haversineKm(double lat, double lng, int[] latsE6, int[] lngsE6, int n, double[] out) {
+        double lat1 = Math.toRadians(lat);
+        double lng1 = Math.toRadians(lng);
+        double cosLat1 = Math.cos(lat1);
+        for (int i = 0; i < n; i++) {
+            double lat2 = latsE6[i] * RAD_PER_MICRODEGREE;
+            double sinDLat = Math.sin((lat2 - lat1) / 2);
+            double sinDLng = Math.sin((lngsE6[i] * RAD_PER_MICRODEGREE - lng1) / 2);
+            double a = sinDLat * sinDLat + cosLat1 * Math.cos(lat2) * sinDLng * sinDLng;
+            out[i] = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        }
+    }
+
+    /**
+     * Xấp xỉ equirectangular cho cùng đầu vào như {@link #haversineKm(double, double, int[], int[], int, double[])}:
+     * không có sin/asin, sai số dưới 0.1% với khoảng cách vài chục km (không dùng gần cực hay kinh tuyến 180).
+     */
+    public static void equirectangularKm(double lat, double lng, int[] latsE6, int[] lngsE6, int n, double[] out) {
+        double lat1 = Math.toRadians(lat);
+        double lng1 = Math.toRadians(lng);
+        for (int i = 0; i < n; i++) {
+            double lat2 = latsE6[i] * RAD_PER_MICRODEGREE;
+            double x = (lngsE6[i] * RAD_PER_MICRODEGREE - lng1) * Math.cos((lat1 + lat2) / 2);
+            double y = lat2 - lat1;
+            out[i] = EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+        }
+    }
+
+    // Số độ vĩ tương ứng với khoảng cách km
+    public static double kmToLatDegrees(double km) {
+        return Math.toDegrees(km / EARTH_RADIUS_KM);
+    }
+
+    // Số độ kinh tương ứng với khoảng cách km tại vĩ độ lat
+    public static double kmToLngDegrees(double km, double lat) {
+        double cos = Math.cos(Math.toRadians(lat));
+        if (cos < 1e-6) return 360.0;
+        return Math.min(360.0, Math.toDegrees(km / (EARTH_RADIUS_KM * cos)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.qtifood.utils;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {}
+
+    /**
+     * Bỏ dấu tiếng Việt và chuẩn hoá về chữ thường, ví dụ "Phở Hà Nội" → "pho ha noi".
+     * Ký tự không phải chữ/số được thay bằng một khoảng trắng.
+     */
+    public static String fold(String text) {
+        if (text == null) return "";
+        String s = Normalizer.normalize(text, Normalizer.Form.NFD);
+        s = MARKS.matcher(s).replaceAll("");
+        // đ/Đ không tách được dấu bằng NFD
+        s = s.replace('đ', 'd').replace('Đ', 'D');
+        s = NON_WORD.matcher(s.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return s.trim();
+    }
+
+    /**
+     * Tách trigram theo kiểu pg_trgm: mỗi từ được đệm 2 khoảng trắng phía trước, 1 phía sau.
+     * Đầu vào phải là chuỗi đã {@link #fold(String) fold}.
+     */
+    public static Set<String> trigrams(String folded) {
+        Set<String> out = new LinkedHashSet<>();
+        if (folded == null || folded.isEmpty()) return out;
+        for (String word : folded.split(" ")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                out.add(padded.substring(i, i + 3));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,29 @@
+-- Mỗi user có tối đa một địa chỉ mặc định.
+-- Ràng buộc là partial index trên (user_id) WHERE is_default, được khai báo dạng EXCLUDE ... DEFERRABLE:
+-- unique index thường được kiểm tra theo từng dòng nên câu UPDATE đổi mặc định
+-- (AddressRepository.switchDefault) có thể bị từ chối tùy thứ tự dòng; DEFERRABLE INITIALLY IMMEDIATE
+-- kiểm tra ở cuối mỗi câu lệnh, nên vi phạm được báo ngay tại câu UPDATE (409) thay vì lúc commit.
+-- Các lần đổi mặc định của cùng user được tuần tự hoá bằng khoá dòng users (AddressRepository.lockUserByAddressId).
+-- Chạy mỗi lần khởi động: chỉ dọn dữ liệu cũ và tạo ràng buộc khi chưa có.
+DO $$
+BEGIN
+    -- bản cũ của script tạo ràng buộc INITIALLY DEFERRED (lỗi lúc commit → 500)
+    IF EXISTS (SELECT 1 FROM pg_constraint
+               WHERE conname = 'ux_addresses_user_default' AND conrelid = 'addresses'::regclass AND condeferred) THEN
+        ALTER TABLE addresses DROP CONSTRAINT ux_addresses_user_default;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'ux_addresses_user_default' AND conrelid = 'addresses'::regclass) THEN
+        -- Dữ liệu cũ: giữ địa chỉ mặc định cập nhật gần nhất của mỗi user
+        UPDATE addresses a SET is_default = false
+        WHERE a.is_default
+          AND EXISTS (SELECT 1 FROM addresses b
+                      WHERE b.user_id = a.user_id AND b.is_default
+                        AND (COALESCE(b.updated_at, 'epoch'), b.id) > (COALESCE(a.updated_at, 'epoch'), a.id));
+
+        ALTER TABLE addresses ADD CONSTRAINT ux_addresses_user_default
+            EXCLUDE USING btree (user_id WITH =) WHERE (is_default)
+            DEFERRABLE INITIALLY IMMEDIATE;
+    END IF;
+END $$;
@@ -0,0 +1,10 @@
+-- Tuỳ chọn dọn dữ liệu: ứng dụng đã coi dòng chỉ có một nửa toạ độ là chưa có toạ độ (GeoPoint.isComplete),
+-- script này chỉ xoá hẳn nửa còn lại và thêm CHECK để dòng mới luôn có đủ cặp vĩ độ/kinh độ.
+
+UPDATE stores SET latitude = NULL, longitude = NULL WHERE (latitude IS NULL) <> (longitude IS NULL);
+UPDATE addresses SET lat = NULL, log = NULL WHERE (lat IS NULL) <> (log IS NULL);
+
+ALTER TABLE stores DROP CONSTRAINT IF EXISTS ck_stores_coordinates_pair;
+ALTER TABLE stores ADD CONSTRAINT ck_stores_coordinates_pair CHECK ((latitude IS NULL) = (longitude IS NULL));
+ALTER TABLE addresses DROP CONSTRAINT IF EXISTS ck_addresses_coordinates_pair;
+ALTER TABLE addresses ADD CONSTRAINT ck_addresses_coordinates_pair CHECK ((lat IS NULL) = (log IS NULL));
@@ -0,0 +1,31 @@
+-- Khoá chính sinh từ sequence pooled (allocationSize = 50) để Hibernate batch được INSERT.
+-- Chạy mỗi lần khởi động (spring.sql.init, sau khi Hibernate cập nhật schema) nên phải idempotent:
+-- ddl-auto=update tạo sequence bắt đầu từ 1, trên DB đã có dữ liệu sẽ cấp id trùng khoá chính hiện có.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS roles_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stores_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS addresses_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS categories_seq INCREMENT BY 50;
+
+ALTER SEQUENCE users_seq INCREMENT BY 50;
+ALTER SEQUENCE roles_seq INCREMENT BY 50;
+ALTER SEQUENCE stores_seq INCREMENT BY 50;
+ALTER SEQUENCE addresses_seq INCREMENT BY 50;
+ALTER SEQUENCE categories_seq INCREMENT BY 50;
+
+-- optimizer pooled cấp phát (giá trị - 50, giá trị], nên giá trị hiện tại phải >= max(id) + 50.
+-- Không bao giờ lùi sequence: instance khác đang chạy có thể đã giữ các khối phía trên max(id).
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM users), (SELECT last_value FROM users_seq)));
+SELECT setval('roles_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM roles), (SELECT last_value FROM roles_seq)));
+SELECT setval('stores_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM stores), (SELECT last_value FROM stores_seq)));
+SELECT setval('addresses_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM addresses), (SELECT last_value FROM addresses_seq)));
+SELECT setval('categories_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM categories), (SELECT last_value FROM categories_seq)));
+
+-- Bảng tạo từ phiên bản cũ còn IDENTITY: sequence riêng của identity cấp id chồng lên các khối của
+-- sequence pooled nên bỏ đi; INSERT thủ công phải lấy id từ sequence, ví dụ nextval('users_seq').
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE stores ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE addresses ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
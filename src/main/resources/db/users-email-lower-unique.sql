@@ -0,0 +1,35 @@
+-- Email không phân biệt hoa thường: "A@x.com" và "a@x.com" là cùng một tài khoản.
+-- Unique constraint cũ trên users.email phân biệt hoa thường nên không chặn được trường hợp này.
+-- UserRepository.existsByNormalizedEmail lọc theo lower(email) nên dùng được index này; index cũng là chốt chặn
+-- cuối cho hai lần đăng ký song song cùng email (UserServiceImpl.createUser).
+-- Chạy mỗi lần khởi động, chỉ làm việc khi index chưa có. Không dùng CONCURRENTLY vì cả file chạy trong một
+-- transaction; lần đầu CREATE INDEX khoá ghi bảng users trong lúc build.
+-- Script không sửa dữ liệu: nếu còn email có khoảng trắng đầu/cuối hoặc email trùng (khác hoa thường),
+-- ứng dụng không khởi động được cho đến khi các dòng đó được xử lý bằng một migration riêng, có review:
+--   SELECT id, email FROM users WHERE email <> trim(email);
+--   SELECT lower(trim(email)), count(*) FROM users WHERE email IS NOT NULL GROUP BY 1 HAVING count(*) > 1;
+DO $$
+DECLARE
+    untrimmed text;
+    duplicate text;
+BEGIN
+    IF to_regclass('ux_users_email_lower') IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    SELECT string_agg(format('%s %L', id, email), ', ' ORDER BY id) INTO untrimmed
+    FROM (SELECT id, email FROM users WHERE email <> trim(email) ORDER BY id LIMIT 20) t;
+    IF untrimmed IS NOT NULL THEN
+        RAISE EXCEPTION 'users.email has leading/trailing whitespace (id email, first 20: %), see db/users-email-lower-unique.sql',
+            untrimmed;
+    END IF;
+
+    SELECT lower(email) INTO duplicate FROM users
+    WHERE email IS NOT NULL GROUP BY 1 HAVING count(*) > 1 LIMIT 1;
+    IF duplicate IS NOT NULL THEN
+        RAISE EXCEPTION 'users.email has case-insensitive duplicates (e.g. %), see db/users-email-lower-unique.sql',
+            duplicate;
+    END IF;
+
+    CREATE UNIQUE INDEX ux_users_email_lower ON users (lower(email));
+END $$;
@@ -0,0 +1,42 @@
+package com.example.qtifood;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Khởi động cả ứng dụng trên H2 rồi đọc /actuator/prometheus như Prometheus scrape
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureObservability
+class MetricsEndpointTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void prometheusScrapeExposesRequestPoolAndHibernateMetrics() {
+        rest.getForEntity("/api/categories", String.class);
+        rest.getForEntity("/api/users", String.class);
+
+        String scrape = rest.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(scrape)
+                .contains("qtifood_controller_seconds_bucket{application=\"qtifood\","
+                        + "class=\"com.example.qtifood.controllers.CategoriesController\"")
+                .contains("method=\"getAllCategories\"")
+                .contains("qtifood_service_seconds_count{application=\"qtifood\","
+                        + "class=\"com.example.qtifood.services.impl.UserServiceImpl\"")
+                .contains("hikaricp_connections_active{")
+                .contains("hikaricp_connections_pending{")
+                .contains("hikaricp_connections_acquire_seconds_bucket{")
+                .contains("hibernate_statements_total{")
+                .contains("hibernate_entities_loads_total{")
+                .contains("hibernate_flushes_total{")
+                .contains("qtifood_category_snapshot_pages_total{");
+    }
+}
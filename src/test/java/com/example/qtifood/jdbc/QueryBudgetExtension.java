@@ -0,0 +1,36 @@
+package com.example.qtifood.jdbc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Đánh trượt test nếu trong lúc chạy có request vượt {@link QueryBudget} của endpoint.
+ * Dùng với {@code @SpringBootTest} (ứng dụng đầy đủ, request đi qua {@link QueryBudgetFilter}):
+ * {@code @ExtendWith(QueryBudgetExtension.class)}.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        filter(context).clearViolations();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        List<QueryBudgetFilter.Violation> violations = filter(context).violations();
+        if (violations.isEmpty()) return;
+        throw new AssertionError("Query budget exceeded:\n" + violations.stream()
+                .map(v -> "  " + v.request() + " → " + v.handler() + ": " + v.statements()
+                        + " statements, budget " + v.budget())
+                .collect(Collectors.joining("\n")));
+    }
+
+    private static QueryBudgetFilter filter(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(QueryBudgetFilter.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.qtifood.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+// Trang 30 bản ghi: nạp quan hệ theo từng dòng (N+1) sẽ vượt @QueryBudget và làm trượt test
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.sql.query-headers=true")
+@ActiveProfiles("test")
+@ExtendWith(QueryBudgetExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final int ROWS = 30;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @BeforeAll
+    void seed() {
+        rest.postForObject("/api/roles?name=CUSTOMER", null, String.class);
+        for (int i = 1; i <= ROWS; i++) {
+            rest.postForObject("/api/users", Map.of("fullName", "User " + i, "email", "user" + i + "@example.com",
+                    "password", "secret1"), String.class);
+            rest.postForObject("/api/stores", Map.of("ownerId", i, "name", "Store " + i,
+                    "latitude", 10.76 + i * 0.001, "longitude", 106.70), String.class);
+            rest.postForObject("/api/addresses", Map.of("userId", 1, "receiver", "Receiver " + i,
+                    "phone", "0901234567", "address", "Address " + i), String.class);
+        }
+    }
+
+    @Test
+    void userEndpointsStayWithinBudget() {
+        assertWithinBudget("/api/users?size=" + ROWS, 2);
+        assertWithinBudget("/api/users?size=" + ROWS + "&fields=id,email,roles", 2);
+        assertWithinBudget("/api/users/1", 3);
+    }
+
+    @Test
+    void storeEndpointsStayWithinBudget() {
+        assertWithinBudget("/api/stores?size=" + ROWS, 1);
+        assertWithinBudget("/api/stores/status/PENDING?size=" + ROWS, 1);
+        assertWithinBudget("/api/stores/search?q=Store&limit=" + ROWS, 1);
+        assertWithinBudget("/api/stores/nearby?lat=10.77&lng=106.70&radiusKm=10&limit=" + ROWS, 1);
+        assertWithinBudget("/api/stores/1", 2);
+    }
+
+    @Test
+    void addressEndpointsStayWithinBudget() {
+        assertWithinBudget("/api/addresses?size=" + ROWS, 1);
+        assertWithinBudget("/api/addresses/user/1", 2);
+    }
+
+    private void assertWithinBudget(String url, int expectedStatements) {
+        ResponseEntity<String> response = rest.getForEntity(url, String.class);
+        assertThat(response.getStatusCode()).as(url).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(QueryBudgetFilter.COUNT_HEADER)).as(url)
+                .isEqualTo(Integer.toString(expectedStatements));
+        assertThat(response.getHeaders().getFirst(QueryBudgetFilter.TIME_HEADER)).as(url).isNotBlank();
+    }
+}
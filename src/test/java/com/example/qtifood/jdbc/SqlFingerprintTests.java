@@ -0,0 +1,35 @@
+package com.example.qtifood.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlFingerprintTests {
+
+    @Test
+    void replacesLiteralsAndCollapsesWhitespace() {
+        String fp = SqlFingerprint.normalize("""
+                select u1_0.id, u1_0.email
+                from   users u1_0 /* load user */
+                where  u1_0.email = 'A@x.com' and u1_0.id > 42 -- keyset
+                fetch first 21 rows only""");
+
+        assertThat(fp).isEqualTo("select u1_0.id, u1_0.email from users u1_0 where u1_0.email = ? and u1_0.id > ? "
+                + "fetch first ? rows only");
+    }
+
+    @Test
+    void inListsOfAnyLengthShareOneFingerprint() {
+        String two = SqlFingerprint.of("delete from user_roles where role_id = ? and user_id in (?, ?)");
+        String many = SqlFingerprint.of("DELETE FROM user_roles WHERE role_id = 3 AND user_id IN (?,?,?,?,?)");
+
+        assertThat(two).isEqualTo(many).isEqualTo("delete from user_roles where role_id = ? and user_id in (?+)");
+        assertThat(SqlFingerprint.id(two)).isEqualTo(SqlFingerprint.id(many));
+    }
+
+    @Test
+    void escapedQuotesStayInsideTheLiteral() {
+        assertThat(SqlFingerprint.normalize("select * from stores where name = 'Bún bò ''Huế''' and id = 1"))
+                .isEqualTo("select * from stores where name = ? and id = ?");
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.qtifood.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.qtifood.entities.Categories;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class BatchInsertTests {
+
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void saveAllIsSentAsJdbcBatches() {
+        Statistics stats = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<Categories> rows = IntStream.range(0, 100)
+                .mapToObj(i -> Categories.builder().name("category-" + i).build())
+                .toList();
+        categoriesRepository.saveAll(rows);
+        entityManager.flush();
+
+        assertThat(stats.getEntityInsertCount()).isEqualTo(100);
+        // 100 dòng, batch_size = 50 → 2 batch INSERT; sequence pooled (allocationSize = 50) → tối đa 3 lần nextval
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.qtifood.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.qtifood.services.index.EmailBloomFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Bloom filter 64 bit, 1 hàm băm: dễ tìm được email mới mà filter trả "có thể có"
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.email-bloom.expected-insertions=1000", "app.email-bloom.fpp=0.99"})
+@ActiveProfiles("test")
+class UserEmailCheckTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @Test
+    void falsePositiveFallsThroughToDatabase() {
+        rest.postForObject("/api/roles?name=CUSTOMER", null, String.class);
+        assertThat(create("an@example.com").is2xxSuccessful()).isTrue();
+        String falsePositive = IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@example.com")
+                .filter(emailBloomFilter::mightContain)
+                .findFirst().orElseThrow();
+
+        assertThat(create(falsePositive).is2xxSuccessful()).isTrue();
+        assertThat(meters.get("qtifood.email.bloom.false.positives").counter().count()).isEqualTo(1);
+        assertThat(create("AN@example.com").is2xxSuccessful()).isFalse();
+    }
+
+    private HttpStatusCode create(String email) {
+        return rest.postForEntity("/api/users",
+                Map.of("fullName", "User", "email", email, "password", "secret1"), String.class).getStatusCode();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.qtifood.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.qtifood.dtos.common.CursorPage;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.dtos.user.UserResponseDto;
+import com.example.qtifood.entities.Role;
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.entities.User;
+import com.example.qtifood.repositories.ProjectionRepository;
+import com.example.qtifood.repositories.RoleRepository;
+import com.example.qtifood.repositories.TableStatsRepository;
+import com.example.qtifood.repositories.UserRepository;
+import com.example.qtifood.security.PasswordHasher;
+import com.example.qtifood.services.impl.UserServiceImpl;
+import com.example.qtifood.services.index.EmailBloomFilter;
+import com.example.qtifood.services.index.RoleRegistry;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({UserServiceImpl.class, RoleRegistry.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+class UserPageQueryCountTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private TableStatsRepository tableStatsRepository;
+
+    @MockitoBean
+    private ProjectionRepository projectionRepository;
+
+    @MockitoBean
+    private AdminStatsService adminStatsService;
+
+    @MockitoBean
+    private PasswordHasher passwordHasher;
+
+    @MockitoBean
+    private EmailBloomFilter emailBloomFilter;
+
+    @Test
+    void pageOfUsersLoadsRolesInOneQuery() {
+        Role customer = roleRepository.save(Role.builder().name(RoleType.CUSTOMER).build());
+        Role seller = roleRepository.save(Role.builder().name(RoleType.SELLER).build());
+        List<User> users = IntStream.range(0, 50)
+                .mapToObj(i -> User.builder()
+                        .fullName("user-" + i)
+                        .email("user-" + i + "@example.com")
+                        .password("x")
+                        .roles(i % 2 == 0 ? Set.of(customer) : Set.of(customer, seller))
+                        .build())
+                .toList();
+        userRepository.saveAll(users);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics stats = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        CursorPage<UserResponseDto> page = userService.getUsers(CursorRequest.first(50));
+
+        // 1 truy vấn trang user + 1 truy vấn roles cho cả trang, không phụ thuộc số user
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(stats.getCollectionFetchCount()).isZero();
+        assertThat(page.items()).hasSize(50);
+        assertThat(page.items().get(0).roles()).isEqualTo(EnumSet.of(RoleType.CUSTOMER));
+        assertThat(page.items().get(1).roles()).isEqualTo(EnumSet.of(RoleType.CUSTOMER, RoleType.SELLER));
+    }
+}
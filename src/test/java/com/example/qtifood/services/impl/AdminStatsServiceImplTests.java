@@ -0,0 +1,68 @@
+package com.example.qtifood.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.qtifood.entities.RoleType;
+import com.example.qtifood.repositories.StoreRepository;
+import com.example.qtifood.repositories.UserRepository;
+
+// clock của app ở UTC+7, JVM (múi giờ @CreationTimestamp ghi created_at) ở UTC-4
+class AdminStatsServiceImplTests {
+
+    private static final ZoneId APP_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final ZoneId STORAGE_ZONE = ZoneId.of("America/New_York");
+
+    private final TimeZone originalDefault = TimeZone.getDefault();
+    private UserRepository userRepository;
+    private AdminStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone(STORAGE_ZONE));
+        // 01:30 ngày 10/6 giờ Việt Nam = 14:30 ngày 9/6 giờ New York
+        Clock clock = Clock.fixed(Instant.parse("2026-06-09T18:30:00Z"), APP_ZONE);
+        StoreRepository storeRepository = mock(StoreRepository.class);
+        userRepository = mock(UserRepository.class);
+        when(storeRepository.countGroupByStatus()).thenReturn(List.of());
+        when(userRepository.countGroupByRole()).thenReturn(List.of());
+        service = new AdminStatsServiceImpl(storeRepository, userRepository, clock);
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(originalDefault);
+    }
+
+    @Test
+    void reconcileBucketsSignupsOnTheSameDayAsTheLiveCounter() {
+        service.onUserCreated(Set.of(RoleType.CUSTOMER));
+        Map<LocalDate, Long> live = service.getStats().signupsByDay();
+        assertThat(live).containsExactly(Map.entry(LocalDate.of(2026, 6, 10), 1L));
+
+        when(userRepository.findCreatedAtSince(LocalDateTime.of(2026, 5, 11, 13, 0)))
+                .thenReturn(List.of(LocalDateTime.of(2026, 6, 9, 14, 30), LocalDateTime.of(2026, 6, 9, 12, 59)));
+        service.reconcile();
+
+        verify(userRepository).findCreatedAtSince(LocalDateTime.of(2026, 5, 11, 13, 0));
+        assertThat(service.getStats().signupsByDay()).containsExactly(
+                Map.entry(LocalDate.of(2026, 6, 9), 1L),
+                Map.entry(LocalDate.of(2026, 6, 10), 1L));
+    }
+}
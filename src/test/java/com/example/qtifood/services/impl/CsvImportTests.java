@@ -0,0 +1,59 @@
+package com.example.qtifood.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.qtifood.dtos.common.ImportReportDto;
+import com.example.qtifood.dtos.common.ImportReportDto.RowError;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+class CsvImportTests {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    // giả lập DB: tên "bad" vi phạm ràng buộc, cả chunk chứa nó bị rollback
+    private final List<String> committed = new ArrayList<>();
+    private final CsvImport.ChunkWriter<String> writer = chunk -> {
+        if (chunk.stream().anyMatch(r -> r.dto().equals("bad"))) {
+            throw new DataIntegrityViolationException("value too long");
+        }
+        chunk.forEach(r -> committed.add(r.dto()));
+        return List.of();
+    };
+
+    @Test
+    void rejectedChunkIsRetriedRowByRowAndOnlyTheBadLineFails() {
+        ImportReportDto report = run("name\na\nbad\nc\n");
+
+        assertThat(committed).containsExactly("a", "c");
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.errors()).extracting(RowError::line).containsExactly(3L);
+        assertThat(report.errors().get(0).message()).startsWith("Rejected by database: value too long");
+    }
+
+    @Test
+    void unterminatedQuoteEndsImportWithReportSoFar() {
+        ImportReportDto report = run("name\na\n\"b\nc\n");
+
+        assertThat(committed).containsExactly("a");
+        assertThat(report.totalRows()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.errors()).extracting(RowError::line).containsExactly(3L);
+    }
+
+    private ImportReportDto run(String csv) {
+        return CsvImport.run(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                (Map<String, String> r) -> r.get("name"), validator, writer);
+    }
+}
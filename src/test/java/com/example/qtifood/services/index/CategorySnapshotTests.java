@@ -0,0 +1,71 @@
+package com.example.qtifood.services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.example.qtifood.dtos.Categories.CategoryResponseDto;
+import com.example.qtifood.dtos.common.CursorRequest;
+import com.example.qtifood.repositories.CategoriesRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// hook afterCommit đến không theo thứ tự commit
+class CategorySnapshotTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    private CategorySnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        CategoriesRepository repository = mock(CategoriesRepository.class);
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of());
+        snapshot = new CategorySnapshot(repository, new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry());
+        snapshot.load();
+    }
+
+    @Test
+    void olderVersionArrivingLateDoesNotOverwriteNewer() {
+        snapshot.put(category(1L, "Bún", T0.plusSeconds(2)));
+        snapshot.put(category(1L, "Phở", T0.plusSeconds(1)));
+
+        assertThat(names()).containsExactly("Bún");
+    }
+
+    @Test
+    void updateArrivingAfterDeleteDoesNotResurrect() {
+        snapshot.put(category(1L, "Bún", T0));
+        snapshot.remove(1L);
+        snapshot.put(category(1L, "Bún bò", T0.plusSeconds(1)));
+
+        assertThat(names()).isEmpty();
+    }
+
+    @Test
+    void newerVersionReplacesAndKeepsIdOrder() {
+        snapshot.put(category(2L, "Cơm", T0));
+        snapshot.put(category(1L, "Bún", T0));
+        snapshot.put(category(2L, "Cơm tấm", T0.plusSeconds(1)));
+
+        assertThat(names()).containsExactly("Bún", "Cơm tấm");
+    }
+
+    private List<String> names() {
+        return snapshot.page(CursorRequest.first(20)).items().stream().map(CategoryResponseDto::name).toList();
+    }
+
+    private static CategoryResponseDto category(Long id, String name, LocalDateTime updatedAt) {
+        return new CategoryResponseDto(id, name, null, null, true, T0, updatedAt);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.qtifood.services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.qtifood.repositories.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmailBloomFilterTests {
+
+    private UserRepository repository;
+    private SimpleMeterRegistry meters;
+    private EmailBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        meters = new SimpleMeterRegistry();
+        filter = new EmailBloomFilter(repository, meters, 1000, 0.01);
+    }
+
+    @Test
+    void answersMaybeUntilLoaded() {
+        assertThat(filter.mightContain("a@x.vn")).isTrue();
+    }
+
+    @Test
+    void unknownEmailIsADefiniteMissAndLookupIgnoresCase() {
+        when(repository.streamAllEmails()).thenReturn(Stream.of("An@X.vn"));
+        filter.load();
+
+        assertThat(filter.mightContain(" an@x.VN ")).isTrue();
+        assertThat(filter.mightContain("binh@x.vn")).isFalse();
+        assertThat(meters.get("qtifood.email.bloom.checks").tag("result", "negative").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reloadDropsDeletedEmailsAndKeepsOnesAddedMeanwhile() {
+        when(repository.streamAllEmails()).thenReturn(Stream.of("an@x.vn", "binh@x.vn"));
+        filter.load();
+        // binh đã bị xoá; chi đăng ký trong lúc đang nạp lại
+        when(repository.streamAllEmails()).thenReturn(Stream.of("an@x.vn").peek(e -> filter.add("chi@x.vn")));
+        filter.load();
+
+        assertThat(filter.mightContain("an@x.vn")).isTrue();
+        assertThat(filter.mightContain("chi@x.vn")).isTrue();
+        assertThat(filter.mightContain("binh@x.vn")).isFalse();
+    }
+}
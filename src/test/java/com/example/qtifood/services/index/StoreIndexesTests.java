@@ -0,0 +1,121 @@
+package com.example.qtifood.services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.repositories.StoreRepository;
+
+// hook afterCommit của các lần sửa cùng một store đến không theo thứ tự commit
+class StoreIndexesTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    private final MutableClock clock = new MutableClock(T0.toInstant(ZoneOffset.UTC));
+    private StoreRepository repository;
+    private StoreSearchIndex searchIndex;
+    private StoreIndexes indexes;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StoreRepository.class);
+        when(repository.findAllProjectedBy()).thenReturn(List.of());
+        searchIndex = new StoreSearchIndex();
+        indexes = new StoreIndexes(repository, new StoreSpatialIndex(), searchIndex,
+                new StoreOpeningHoursIndex(), clock);
+        indexes.load();
+    }
+
+    @Test
+    void olderVersionArrivingLateDoesNotOverwriteNewer() {
+        indexes.upsert(store(1L, "Bún chả Hà Nội", T0.plusSeconds(2)));
+        indexes.upsert(store(1L, "Phở Thìn", T0.plusSeconds(1)));
+
+        assertThat(searchIndex.search("bun cha", 10)).extracting(StoreSearchIndex.Hit::id).containsExactly(1L);
+        assertThat(searchIndex.search("pho thin", 10)).isEmpty();
+    }
+
+    @Test
+    void updateArrivingAfterDeleteDoesNotResurrect() {
+        indexes.upsert(store(1L, "Bún chả Hà Nội", T0));
+        indexes.remove(1L);
+        indexes.upsert(store(1L, "Bún chả Hà Nội", T0.plusSeconds(1)));
+
+        assertThat(searchIndex.search("bun cha", 10)).isEmpty();
+    }
+
+    @Test
+    void loadSeedsVersionsSoAStaleCallbackIsIgnored() {
+        StoreRepository.StoreIndexView view = mock(StoreRepository.StoreIndexView.class);
+        when(view.getId()).thenReturn(1L);
+        when(view.getName()).thenReturn("Bún chả Hà Nội");
+        when(view.getUpdatedAt()).thenReturn(T0.plusSeconds(2));
+        when(repository.findAllProjectedBy()).thenReturn(List.of(view));
+        indexes.remove(2L);
+
+        indexes.load();
+        indexes.upsert(store(1L, "Phở Thìn", T0.plusSeconds(1)));
+
+        assertThat(searchIndex.search("bun cha", 10)).extracting(StoreSearchIndex.Hit::id).containsExactly(1L);
+        assertThat(searchIndex.search("pho thin", 10)).isEmpty();
+        assertThat(indexes.tombstones()).isZero();
+    }
+
+    @Test
+    void tombstonesExpireAfterTheTtl() {
+        indexes.remove(1L);
+        clock.advance(StoreIndexes.TOMBSTONE_TTL.minusSeconds(1));
+        indexes.remove(2L);
+        assertThat(indexes.tombstones()).isEqualTo(2);
+
+        clock.advance(StoreIndexes.TOMBSTONE_TTL.minusSeconds(1));
+        indexes.upsert(store(1L, "Bún chả Hà Nội", T0));
+
+        assertThat(indexes.tombstones()).isEqualTo(1);
+        assertThat(searchIndex.search("bun cha", 10)).extracting(StoreSearchIndex.Hit::id).containsExactly(1L);
+    }
+
+    private static Store store(Long id, String name, LocalDateTime updatedAt) {
+        return Store.builder().id(id).name(name).updatedAt(updatedAt).build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
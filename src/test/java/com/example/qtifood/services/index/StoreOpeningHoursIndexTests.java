@@ -0,0 +1,85 @@
+package com.example.qtifood.services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.qtifood.entities.Store;
+
+class StoreOpeningHoursIndexTests {
+
+    private StoreOpeningHoursIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StoreOpeningHoursIndex();
+        index.load(List.of());
+    }
+
+    @Test
+    void overnightWindowIsSplitAcrossMidnight() {
+        index.upsert(store(1L, "22:00", "02:00"));
+
+        assertThat(index.isOpen(1L, at("21:59"))).isFalse();
+        assertThat(index.isOpen(1L, at("22:00"))).isTrue();
+        assertThat(index.isOpen(1L, at("00:30"))).isTrue();
+        assertThat(index.isOpen(1L, at("01:59"))).isTrue();
+        assertThat(index.isOpen(1L, at("02:00"))).isFalse();
+        assertThat(index.openAfter(at("23:15"), 0, 10)).containsExactly(1L);
+        assertThat(index.openAfter(at("12:00"), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void equalOpenAndCloseMeansAllDay() {
+        index.upsert(store(1L, "08:00", "08:00"));
+
+        for (int h = 0; h < 24; h++) {
+            assertThat(index.openAfter(LocalTime.of(h, 0), 0, 10)).as("hour %d", h).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void closeIsExclusiveAndPartialHoursAreChecked() {
+        index.upsert(store(1L, "08:30", "10:00"));
+        index.upsert(store(2L, "10:00", "10:45"));
+
+        assertThat(index.openAfter(at("08:29"), 0, 10)).isEmpty();
+        assertThat(index.openAfter(at("08:30"), 0, 10)).containsExactly(1L);
+        assertThat(index.openAfter(at("09:59"), 0, 10)).containsExactly(1L);
+        assertThat(index.openAfter(at("10:00"), 0, 10)).containsExactly(2L);
+        assertThat(index.openAfter(at("10:45"), 0, 10)).isEmpty();
+        assertThat(index.countOpenAt(at("10:30"))).isEqualTo(1);
+    }
+
+    @Test
+    void openAfterPagesInIdOrderFromTheCursor() {
+        index.upsert(store(5L, "07:00", "22:00"));
+        index.upsert(store(2L, "07:00", "22:00"));
+        index.upsert(store(9L, "07:00", "22:00"));
+        index.upsert(store(7L, "13:00", "14:00"));
+        index.upsert(store(3L, null, "22:00"));
+
+        assertThat(index.openAfter(at("12:00"), 0, 2)).containsExactly(2L, 5L);
+        assertThat(index.openAfter(at("12:00"), 5, 2)).containsExactly(9L);
+        assertThat(index.countOpenAt(at("12:00"))).isEqualTo(3);
+
+        index.upsert(store(5L, "18:00", "22:00"));
+
+        assertThat(index.openAfter(at("12:00"), 0, 10)).containsExactly(2L, 9L);
+    }
+
+    private static LocalTime at(String hhmm) {
+        return LocalTime.parse(hhmm);
+    }
+
+    private static Store store(Long id, String open, String close) {
+        return Store.builder().id(id)
+                .openTime(open == null ? null : at(open))
+                .closeTime(close == null ? null : at(close))
+                .build();
+    }
+}
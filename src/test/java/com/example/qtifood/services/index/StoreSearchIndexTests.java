@@ -0,0 +1,56 @@
+package com.example.qtifood.services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.qtifood.entities.Store;
+
+class StoreSearchIndexTests {
+
+    private StoreSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StoreSearchIndex();
+        index.upsert(store(1L, "Cơm tấm Phở Xưa"));
+        index.upsert(store(2L, "Phở Thìn"));
+        index.upsert(store(3L, "Bún đậu Đồng Mô"));
+        index.upsert(store(4L, "Trà sữa"));
+    }
+
+    @Test
+    void prefixRanksAboveContainsAndFoldsAccents() {
+        assertThat(ids("pho")).containsExactly(2L, 1L);
+        assertThat(ids("PHỞ")).containsExactly(2L, 1L);
+        assertThat(ids("dau dong")).containsExactly(3L);
+    }
+
+    @Test
+    void shortQueryFallsBackToSubstringScan() {
+        assertThat(ids("ph")).containsExactly(2L, 1L);
+        assertThat(ids("đ")).containsExactly(3L);
+        assertThat(ids("ư")).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void limitAndRemoveApply() {
+        assertThat(index.search("ph", 1)).extracting(StoreSearchIndex.Hit::id).containsExactly(2L);
+
+        index.remove(2L);
+
+        assertThat(ids("pho")).containsExactly(1L);
+        assertThat(ids("")).isEmpty();
+    }
+
+    private List<Long> ids(String q) {
+        return index.search(q, 10).stream().map(StoreSearchIndex.Hit::id).toList();
+    }
+
+    private static Store store(Long id, String name) {
+        return Store.builder().id(id).name(name).build();
+    }
+}
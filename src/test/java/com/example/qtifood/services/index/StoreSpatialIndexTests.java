@@ -0,0 +1,88 @@
+package com.example.qtifood.services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.qtifood.entities.GeoPoint;
+import com.example.qtifood.entities.Store;
+import com.example.qtifood.entities.StoreStatus;
+
+// 0.001 độ vĩ ≈ 0.111 km; ô lưới rộng 0.01 độ
+class StoreSpatialIndexTests {
+
+    private static final double LAT = 10.77;
+    private static final double LNG = 106.70;
+
+    private StoreSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StoreSpatialIndex();
+        index.load(List.of());
+    }
+
+    @Test
+    void returnsClosestFirstAndKeepsOnlyTheLimit() {
+        index.upsert(store(1L, LAT + 0.003, LNG, StoreStatus.ACTIVE));
+        index.upsert(store(2L, LAT + 0.001, LNG, StoreStatus.ACTIVE));
+        index.upsert(store(3L, LAT + 0.020, LNG, StoreStatus.ACTIVE));
+        index.upsert(store(4L, LAT - 0.005, LNG, StoreStatus.ACTIVE));
+
+        List<StoreSpatialIndex.Hit> hits = index.nearby(LAT, LNG, 5, 3, null);
+
+        assertThat(hits).extracting(StoreSpatialIndex.Hit::id).containsExactly(2L, 1L, 4L);
+        assertThat(hits.get(0).distanceKm()).isCloseTo(0.111, Offset.offset(0.001));
+        // bán kính lớn duyệt theo các ô đang có dữ liệu: cùng kết quả
+        assertThat(index.nearby(LAT, LNG, 50, 3, null)).isEqualTo(hits);
+    }
+
+    @Test
+    void excludesStoresBeyondTheRadiusAndOtherStatuses() {
+        index.upsert(store(1L, LAT + 0.0089, LNG, StoreStatus.ACTIVE));   // ~0.990 km
+        index.upsert(store(2L, LAT + 0.0090, LNG, StoreStatus.ACTIVE));   // ~1.001 km
+        index.upsert(store(3L, LAT + 0.0010, LNG, StoreStatus.PENDING));
+
+        assertThat(index.nearby(LAT, LNG, 1.0, 10, null))
+                .extracting(StoreSpatialIndex.Hit::id).containsExactly(3L, 1L);
+        assertThat(index.nearby(LAT, LNG, 1.0, 10, StoreStatus.ACTIVE))
+                .extracting(StoreSpatialIndex.Hit::id).containsExactly(1L);
+    }
+
+    @Test
+    void findsStoresOnBothSidesOfCellEdges() {
+        // (10.77, 106.70) là góc của bốn ô; (0, 0) kiểm tra làm tròn xuống với toạ độ âm
+        index.upsert(store(1L, 10.769999, 106.699999, StoreStatus.ACTIVE));
+        index.upsert(store(2L, 10.770000, 106.699999, StoreStatus.ACTIVE));
+        index.upsert(store(3L, 10.769999, 106.700000, StoreStatus.ACTIVE));
+        index.upsert(store(4L, 10.770000, 106.700000, StoreStatus.ACTIVE));
+        index.upsert(store(5L, -0.000001, -0.000001, StoreStatus.ACTIVE));
+        index.upsert(store(6L, 0.000001, 0.000001, StoreStatus.ACTIVE));
+
+        assertThat(index.nearby(LAT, LNG, 0.01, 10, null))
+                .extracting(StoreSpatialIndex.Hit::id).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(index.nearby(0, 0, 0.01, 10, null))
+                .extracting(StoreSpatialIndex.Hit::id).containsExactlyInAnyOrder(5L, 6L);
+    }
+
+    @Test
+    void upsertMovesStoreAndRemoveDropsIt() {
+        index.upsert(store(1L, LAT, LNG, StoreStatus.ACTIVE));
+        index.upsert(store(1L, LAT + 0.5, LNG, StoreStatus.ACTIVE));
+
+        assertThat(index.nearby(LAT, LNG, 1, 10, null)).isEmpty();
+        assertThat(index.nearby(LAT + 0.5, LNG, 1, 10, null)).extracting(StoreSpatialIndex.Hit::id).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.nearby(LAT + 0.5, LNG, 1, 10, null)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    private static Store store(Long id, double lat, double lng, StoreStatus status) {
+        return Store.builder().id(id).location(GeoPoint.ofDegrees(lat, lng)).status(status).build();
+    }
+}
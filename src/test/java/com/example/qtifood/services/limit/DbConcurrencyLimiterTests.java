@@ -0,0 +1,64 @@
+package com.example.qtifood.services.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DbConcurrencyLimiterTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(registry, 20, 5, 200, 2.0, 1);
+
+    @Test
+    void rejectsBeyondLimitAndCountsRejections() {
+        for (int i = 0; i < 20; i++) assertThat(limiter.tryAcquire()).isTrue();
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+        assertThat(registry.get("qtifood.db.limiter.calls").tag("result", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void growsWhileLatencyIsStableAndShrinksWhenItRises() {
+        runSaturated(500, FAST);
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        runSaturated(200, SLOW);
+        assertThat(limiter.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void doesNotGrowWhenMostlyIdle() {
+        for (int i = 0; i < 500; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(FAST);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void backsOffOnPoolTimeout() {
+        limiter.tryAcquire();
+        limiter.onDropped();
+
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    // giữ số lời gọi đang chạy bằng limit hiện tại rồi trả từng chỗ với độ trễ cho trước
+    private void runSaturated(int calls, long rttNanos) {
+        for (int i = 0; i < calls; i++) {
+            while (limiter.tryAcquire()) { }
+            limiter.onSuccess(rttNanos);
+        }
+        while (limiter.getInFlight() > 0) limiter.onIgnore();
+    }
+}